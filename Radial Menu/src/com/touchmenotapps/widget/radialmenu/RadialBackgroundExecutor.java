@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2012 
+ * Arindam Nath (strider2023@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.touchmenotapps.widget.radialmenu;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import android.os.Process;
+
+/**
+ * This class creates the background threads of the radial menu widgets, such
+ * as the children loader, the usage store writer and the typeface loader.
+ * Every thread runs at background priority so it never competes with the UI
+ * thread, and is a daemon so it never keeps the process alive.
+ */
+public class RadialBackgroundExecutor {
+
+	private RadialBackgroundExecutor() {
+	}
+
+	/**
+	 * Creates an executor running its tasks one at a time, in order, on a
+	 * single background thread.
+	 * @param name - Name of the thread.
+	 * @return The executor.
+	 */
+	public static ExecutorService newSingleThreadExecutor(final String name) {
+		return Executors.newSingleThreadExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(final Runnable runnable) {
+				Thread thread = new Thread(new Runnable() {
+					@Override
+					public void run() {
+						Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+						runnable.run();
+					}
+				}, name);
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+}
@@ -0,0 +1,351 @@
+/*
+ * Copyright (C) 2012 
+ * Arindam Nath (strider2023@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.touchmenotapps.widget.radialmenu;
+
+import android.graphics.RectF;
+
+/**
+ * This class resolves the ring and sector of a radial menu that a touch point
+ * falls in. It is shared by all the radial menu widgets.
+ * 
+ * Every ring keeps a table of its sector boundaries, precomputed as pseudo
+ * angles (a monotonic, trig free stand-in for the real angle). Sectors can
+ * have different sizes. Resolving a point costs one squared distance check
+ * per ring, one pseudo angle and a binary search of the boundary table, so
+ * no Math.atan2 call is needed.
+ * 
+ * Angles are in degrees and grow clockwise from the positive X axis, the same
+ * as Canvas.drawArc.
+ */
+public class RadialSectorResolver {
+
+	public static final int NO_SECTOR = -1;
+
+	private static final int SECTOR_BITS = 16;
+	private static final int SECTOR_MASK = (1 << SECTOR_BITS) - 1;
+	private static final float FULL_TURN = 4;
+	private static final float ANGLE_TOLERANCE = 0.001f;
+
+	private float centerX = 0;
+	private float centerY = 0;
+
+	private int ringCount = 0;
+	private boolean[] ringVisible = new boolean[0];
+	private float[] innerRadiusSq = new float[0];
+	private float[] outerRadiusSq = new float[0];
+	private float[] startPseudo = new float[0];
+	private int[] sectorCount = new int[0];
+	private float[][] boundaries = new float[0][]; // pseudo angle of each boundary relative to the ring start
+
+	/**
+	 * Set the center of the rings.
+	 * @param x - Center X location.
+	 * @param y - Center Y location.
+	 */
+	public void setCenter(float x, float y) {
+		this.centerX = x;
+		this.centerY = y;
+	}
+
+	/**
+	 * Set the geometry of a ring made of equal sectors.
+	 * @param ring - Ring index. Rings are tested in index order.
+	 * @param innerRadius - Inner border radius.
+	 * @param outerRadius - Outer border radius. Pass Float.POSITIVE_INFINITY for no outer border.
+	 * @param startAngle - Angle where the first sector starts.
+	 * @param sliceAngle - Sweep angle of a single sector.
+	 * @param sectors - Number of sectors.
+	 */
+	public void setRing(int ring, float innerRadius, float outerRadius,
+			float startAngle, float sliceAngle, int sectors) {
+		float[] bounds = startRing(ring, innerRadius, outerRadius, startAngle,
+				sectors);
+		for (int k = 1; k <= sectors; k++)
+			bounds[k] = toBoundary(ring, startAngle, k * sliceAngle, bounds[k - 1]);
+	}
+
+	/**
+	 * Set the geometry of a ring made of sectors of any size.
+	 * @param ring - Ring index. Rings are tested in index order.
+	 * @param innerRadius - Inner border radius.
+	 * @param outerRadius - Outer border radius. Pass Float.POSITIVE_INFINITY for no outer border.
+	 * @param angles - Angle of every sector boundary in clockwise order, sectors + 1 of them. Sector k lies between angles[k] and angles[k + 1].
+	 * @param sectors - Number of sectors.
+	 */
+	public void setRing(int ring, float innerRadius, float outerRadius,
+			float[] angles, int sectors) {
+		float startAngle = sectors > 0 ? angles[0] : 0;
+		float[] bounds = startRing(ring, innerRadius, outerRadius, startAngle,
+				sectors);
+		for (int k = 1; k <= sectors; k++)
+			bounds[k] = toBoundary(ring, startAngle, angles[k] - startAngle,
+					bounds[k - 1]);
+	}
+
+	private float[] startRing(int ring, float innerRadius, float outerRadius,
+			float startAngle, int sectors) {
+		ensureRing(ring);
+		innerRadiusSq[ring] = innerRadius * innerRadius;
+		outerRadiusSq[ring] = outerRadius * outerRadius;
+		sectorCount[ring] = sectors;
+		ringVisible[ring] = sectors > 0;
+		startPseudo[ring] = toPseudoAngle(startAngle);
+		if (boundaries[ring] == null || boundaries[ring].length < sectors + 1)
+			boundaries[ring] = new float[sectors + 1];
+		boundaries[ring][0] = 0;
+		return boundaries[ring];
+	}
+
+	/**
+	 * @param ring - Ring index.
+	 * @param startAngle - Angle where the first sector starts.
+	 * @param sweep - Angle of the boundary from the start.
+	 * @param previous - Relative pseudo angle of the previous boundary.
+	 * @return The pseudo angle of the boundary relative to the ring start.
+	 */
+	private float toBoundary(int ring, float startAngle, float sweep,
+			float previous) {
+		float relative;
+		if (sweep >= 360 - ANGLE_TOLERANCE) {
+			// The boundary is back at the start, closing a full circle
+			relative = FULL_TURN;
+		} else {
+			relative = toPseudoAngle(startAngle + sweep) - startPseudo[ring];
+			if (relative < 0)
+				relative += FULL_TURN;
+		}
+		return Math.max(relative, previous);
+	}
+
+	/**
+	 * Splits an arc into sectors sized in proportion to their weights. The
+	 * boundaries are computed from the running weight total, so they add up
+	 * to the exact arc whatever the number of sectors.
+	 * @param startAngle - Angle where the arc starts.
+	 * @param sweepAngle - Sweep angle of the whole arc.
+	 * @param weights - Weight of every sector, greater than 0. Pass null for sectors of equal size.
+	 * @param sectors - Number of sectors.
+	 * @param angles - Receives the sectors + 1 boundary angles.
+	 */
+	public static void divideArc(float startAngle, float sweepAngle,
+			float[] weights, int sectors, float[] angles) {
+		double total = 0;
+		for (int k = 0; k < sectors; k++)
+			total += weights != null ? weights[k] : 1;
+		double sum = 0;
+		angles[0] = startAngle;
+		for (int k = 1; k < sectors; k++) {
+			sum += weights != null ? weights[k - 1] : 1;
+			angles[k] = (float) (startAngle + sweepAngle * (sum / total));
+		}
+		if (sectors > 0)
+			angles[sectors] = startAngle + sweepAngle;
+	}
+
+	/**
+	 * Show or hide a ring. Hidden rings are skipped when resolving a point.
+	 * @param ring - Ring index.
+	 * @param visible - True if the ring is shown.
+	 */
+	public void setRingVisible(int ring, boolean visible) {
+		ensureRing(ring);
+		ringVisible[ring] = visible && sectorCount[ring] > 0;
+	}
+
+	/**
+	 * Removes all the rings.
+	 */
+	public void clearRings() {
+		for (int ring = 0; ring < ringCount; ring++) {
+			ringVisible[ring] = false;
+			sectorCount[ring] = 0;
+		}
+	}
+
+	/**
+	 * Resolves the ring and sector under a point.
+	 * @param x - Point X location.
+	 * @param y - Point Y location.
+	 * @return A code to read with getRing and getSector, or NO_SECTOR.
+	 */
+	public int resolve(float x, float y) {
+		float dx = x - centerX;
+		float dy = y - centerY;
+		float distSq = dx * dx + dy * dy;
+		for (int ring = 0; ring < ringCount; ring++) {
+			if (ringVisible[ring] && distSq >= innerRadiusSq[ring]
+					&& distSq < outerRadiusSq[ring]) {
+				int sector = resolveSector(ring, dx, dy);
+				if (sector == NO_SECTOR)
+					return NO_SECTOR;
+				return (ring << SECTOR_BITS) | sector;
+			}
+		}
+		return NO_SECTOR;
+	}
+
+	private int resolveSector(int ring, float dx, float dy) {
+		float[] bounds = boundaries[ring];
+		int sectors = sectorCount[ring];
+		float relative = pseudoAngle(dx, dy) - startPseudo[ring];
+		if (relative < 0)
+			relative += FULL_TURN;
+		if (relative >= bounds[sectors])
+			return NO_SECTOR;
+		return findSector(bounds, sectors, relative);
+	}
+
+	/**
+	 * Finds the last sector starting at or before a value by binary search.
+	 * @param bounds - Sector boundaries in increasing order, sectors + 1 of them.
+	 * @param sectors - Number of sectors, at least 1.
+	 * @param value - Value at or after the first boundary.
+	 * @return The sector index.
+	 */
+	static int findSector(float[] bounds, int sectors, float value) {
+		int low = 0;
+		int high = sectors - 1;
+		while (low < high) {
+			int mid = (low + high + 1) >>> 1;
+			if (bounds[mid] <= value)
+				low = mid;
+			else
+				high = mid - 1;
+		}
+		return low;
+	}
+
+	private void ensureRing(int ring) {
+		if (ring < ringCount)
+			return;
+		int size = ring + 1;
+		ringVisible = grow(ringVisible, size);
+		innerRadiusSq = grow(innerRadiusSq, size);
+		outerRadiusSq = grow(outerRadiusSq, size);
+		startPseudo = grow(startPseudo, size);
+		int[] counts = new int[size];
+		System.arraycopy(sectorCount, 0, counts, 0, ringCount);
+		sectorCount = counts;
+		float[][] bounds = new float[size][];
+		System.arraycopy(boundaries, 0, bounds, 0, ringCount);
+		boundaries = bounds;
+		ringCount = size;
+	}
+
+	private static boolean[] grow(boolean[] array, int size) {
+		boolean[] grown = new boolean[size];
+		System.arraycopy(array, 0, grown, 0, array.length);
+		return grown;
+	}
+
+	private static float[] grow(float[] array, int size) {
+		float[] grown = new float[size];
+		System.arraycopy(array, 0, grown, 0, array.length);
+		return grown;
+	}
+
+	/**
+	 * Computes the bounds of a ring sector, used to redraw a single sector.
+	 * @param x - Center X location.
+	 * @param y - Center Y location.
+	 * @param innerRadius - Inner border radius.
+	 * @param outerRadius - Outer border radius.
+	 * @param startAngle - Angle where the sector starts.
+	 * @param sweepAngle - Sweep angle of the sector.
+	 * @param bounds - Receives the bounds.
+	 */
+	public static void getSectorBounds(float x, float y, float innerRadius,
+			float outerRadius, float startAngle, float sweepAngle, RectF bounds) {
+		if (sweepAngle >= 360) {
+			bounds.set(x - outerRadius, y - outerRadius, x + outerRadius, y
+					+ outerRadius);
+			return;
+		}
+		double start = Math.toRadians(startAngle);
+		double end = Math.toRadians(startAngle + sweepAngle);
+		float startCos = (float) Math.cos(start);
+		float startSin = (float) Math.sin(start);
+		float endCos = (float) Math.cos(end);
+		float endSin = (float) Math.sin(end);
+		bounds.set(x + startCos * innerRadius, y + startSin * innerRadius, x
+				+ startCos * innerRadius, y + startSin * innerRadius);
+		bounds.union(x + startCos * outerRadius, y + startSin * outerRadius);
+		bounds.union(x + endCos * innerRadius, y + endSin * innerRadius);
+		bounds.union(x + endCos * outerRadius, y + endSin * outerRadius);
+		// The outer arc reaches further wherever it crosses an axis
+		float axis = (float) Math.ceil(startAngle / 90) * 90;
+		for (; axis <= startAngle + sweepAngle; axis += 90) {
+			int quadrant = ((int) (axis / 90) % 4 + 4) % 4;
+			if (quadrant == 0)
+				bounds.union(x + outerRadius, y);
+			else if (quadrant == 1)
+				bounds.union(x, y + outerRadius);
+			else if (quadrant == 2)
+				bounds.union(x - outerRadius, y);
+			else
+				bounds.union(x, y - outerRadius);
+		}
+	}
+
+	/**
+	 * @param code - Code returned by resolve.
+	 * @return The ring index of the code.
+	 */
+	public static int getRing(int code) {
+		return code >>> SECTOR_BITS;
+	}
+
+	/**
+	 * @param code - Code returned by resolve.
+	 * @return The sector index of the code.
+	 */
+	public static int getSector(int code) {
+		return code & SECTOR_MASK;
+	}
+
+	/**
+	 * Converts an angle to its pseudo angle.
+	 * @param angle - Angle in degrees.
+	 * @return The pseudo angle, between 0 and 4.
+	 */
+	public static float toPseudoAngle(float angle) {
+		double radians = Math.toRadians(angle);
+		return pseudoAngle((float) Math.cos(radians), (float) Math.sin(radians));
+	}
+
+	/**
+	 * Computes a pseudo angle for a direction. The pseudo angle grows
+	 * monotonically with the real angle, from 0 at the positive X axis to 4
+	 * after a full clockwise turn, but needs no trigonometry.
+	 * @param dx - Horizontal difference.
+	 * @param dy - Vertical difference.
+	 * @return The pseudo angle, between 0 and 4.
+	 */
+	public static float pseudoAngle(float dx, float dy) {
+		float ax = Math.abs(dx);
+		float ay = Math.abs(dy);
+		if (ax + ay == 0)
+			return 0;
+		float p = dy / (ax + ay);
+		if (dx < 0)
+			return 2 - p;
+		else if (dy < 0)
+			return FULL_TURN + p;
+		return p;
+	}
+}
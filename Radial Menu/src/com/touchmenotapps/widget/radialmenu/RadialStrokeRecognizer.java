@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2012 
+ * Arindam Nath (strider2023@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.touchmenotapps.widget.radialmenu;
+
+/**
+ * This class recognizes the strokes of a marking menu. A user who knows
+ * where an item is can flick towards it before the menu shows, and the item
+ * is picked from the direction and length of the stroke alone, so the menu
+ * never has to be drawn. It is shared by all the radial menu widgets.
+ * 
+ * Angles are in degrees and grow clockwise from the positive X axis, the same
+ * as Canvas.drawArc and RadialSectorResolver.
+ */
+public class RadialStrokeRecognizer {
+
+	private RadialStrokeRecognizer() {
+	}
+
+	/**
+	 * Finds the sector a stroke points at.
+	 * @param startX - X location the stroke started at, the center of the menu.
+	 * @param startY - Y location the stroke started at.
+	 * @param endX - X location the stroke ended at.
+	 * @param endY - Y location the stroke ended at.
+	 * @param minDistance - Shortest stroke that picks a sector, shorter ones are taps.
+	 * @param angles - Angle of every sector boundary in clockwise order, sectors + 1 of them. Sector k lies between angles[k] and angles[k + 1].
+	 * @param sectors - Number of sectors.
+	 * @return The sector index, or RadialSectorResolver.NO_SECTOR.
+	 */
+	public static int recognize(float startX, float startY, float endX,
+			float endY, float minDistance, float[] angles, int sectors) {
+		float dx = endX - startX;
+		float dy = endY - startY;
+		if (sectors <= 0 || dx * dx + dy * dy < minDistance * minDistance)
+			return RadialSectorResolver.NO_SECTOR;
+		float relative = (float) Math.toDegrees(Math.atan2(dy, dx)) - angles[0];
+		relative %= 360;
+		if (relative < 0)
+			relative += 360;
+		if (relative >= angles[sectors] - angles[0])
+			return RadialSectorResolver.NO_SECTOR;
+		return RadialSectorResolver.findSector(angles, sectors, angles[0]
+				+ relative);
+	}
+}
@@ -0,0 +1,318 @@
+/*
+ * Copyright (C) 2012 
+ * Arindam Nath (strider2023@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.touchmenotapps.widget.radialmenu;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ExecutorService;
+
+import android.util.Log;
+
+/**
+ * This class keeps how often menu items are used, so the radial menu widgets
+ * can place the most used items in the easiest positions. It is shared by all
+ * the radial menu widgets.
+ * 
+ * The counters live in a small memory-mapped file with a fixed layout: a
+ * header followed by a hash table of slots. Every slot holds the 64 bit hash
+ * of an item key, its score and the minute it was last used. Reading a score
+ * is a few loads from the mapped buffer with no parsing, and recording a use
+ * is done on a background thread so the UI thread never waits for the disk.
+ * Reads and updates of the slots hold the store lock, which is only held for
+ * a few loads and stores, so a reader never sees a slot half replaced.
+ * Scores decay by half every half-life, the decay is applied when a score is
+ * read or updated so the file is never rewritten as a whole.
+ * 
+ * Item keys are hashed with hashKey. A key can be chained from the key of a
+ * parent item so the same name in two submenus counts separately.
+ */
+public class RadialUsageStore {
+
+	private static final int MAGIC = 0x524D5553; // "RMUS"
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 32;
+	private static final int SLOT_SIZE = 16; // key, score, last use minute
+	private static final int MAX_PROBES = 16;
+	private static final long MINUTE = 60 * 1000;
+	private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+	private static final long FNV_PRIME = 0x100000001b3L;
+
+	public static final int DEFAULT_CAPACITY = 512;
+	public static final long DEFAULT_HALF_LIFE = 7 * 24 * 60 * MINUTE;
+
+	private static ExecutorService writer = null;
+
+	private final MappedByteBuffer buffer;
+	private final int mask;
+	private final float halfLifeMinutes;
+
+	private RadialUsageStore(MappedByteBuffer buffer, int capacity,
+			long halfLifeMillis) {
+		this.buffer = buffer;
+		this.mask = capacity - 1;
+		this.halfLifeMinutes = Math.max(1, halfLifeMillis / MINUTE);
+	}
+
+	/**
+	 * Opens a usage store with the default capacity and half-life.
+	 * @param file - File holding the counters, created if needed.
+	 * @return The usage store.
+	 * @throws IOException If the file can't be mapped.
+	 */
+	public static RadialUsageStore open(File file) throws IOException {
+		return open(file, DEFAULT_CAPACITY, DEFAULT_HALF_LIFE);
+	}
+
+	/**
+	 * Opens a usage store. A file written with another capacity, or that is
+	 * not a usage store, is cleared.
+	 * @param file - File holding the counters, created if needed.
+	 * @param capacity - Number of items kept, rounded up to a power of two.
+	 * @param halfLifeMillis - Time in milliseconds after which a score has halved.
+	 * @return The usage store.
+	 * @throws IOException If the file can't be mapped.
+	 */
+	public static RadialUsageStore open(File file, int capacity,
+			long halfLifeMillis) throws IOException {
+		int slots = Integer.highestOneBit(Math.max(capacity, MAX_PROBES) - 1) << 1;
+		int size = HEADER_SIZE + slots * SLOT_SIZE;
+		RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		try {
+			boolean valid = raf.length() == size;
+			if (valid) {
+				raf.seek(0);
+				valid = raf.readInt() == MAGIC && raf.readInt() == VERSION
+						&& raf.readInt() == slots;
+			}
+			if (!valid) {
+				raf.setLength(0);
+				raf.setLength(size);
+				raf.seek(0);
+				raf.writeInt(MAGIC);
+				raf.writeInt(VERSION);
+				raf.writeInt(slots);
+			}
+			// The mapping stays valid after the file is closed
+			MappedByteBuffer buffer = raf.getChannel().map(
+					FileChannel.MapMode.READ_WRITE, 0, size);
+			return new RadialUsageStore(buffer, slots, halfLifeMillis);
+		} finally {
+			raf.close();
+		}
+	}
+
+	/**
+	 * Hashes an item key.
+	 * @param parentKey - Hash of the parent item key, or 0 for a top item.
+	 * @param name - Key of the item, such as its name or ID.
+	 * @return The hash, never 0.
+	 */
+	public static long hashKey(long parentKey, String name) {
+		long hash = parentKey == 0 ? FNV_OFFSET : parentKey;
+		if (name != null) {
+			for (int i = 0; i < name.length(); i++) {
+				hash ^= name.charAt(i);
+				hash *= FNV_PRIME;
+			}
+		}
+		// Separates the name from the next one chained to it
+		hash ^= '/';
+		hash *= FNV_PRIME;
+		return hash == 0 ? 1 : hash;
+	}
+
+	/**
+	 * Get the decayed score of an item.
+	 * @param key - Hash of the item key.
+	 * @return The score, 0 if the item was never used.
+	 */
+	public synchronized float getScore(long key) {
+		int slot = findSlot(key);
+		if (slot == -1)
+			return 0;
+		return decay(buffer.getFloat(slot + 8), buffer.getInt(slot + 12),
+				currentMinute());
+	}
+
+	/**
+	 * Counts one use of an item. The store is updated on a background thread.
+	 * @param key - Hash of the item key.
+	 */
+	public void recordUse(final long key) {
+		final int minute = currentMinute();
+		getWriter().execute(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					increment(key, minute);
+				} catch (RuntimeException e) {
+					Log.e(RadialUsageStore.class.getName(),
+							"Could not update the usage store", e);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Writes the counters to the disk on a background thread. The counters
+	 * are written by the system anyway, this only makes it happen sooner.
+	 */
+	public void flush() {
+		getWriter().execute(new Runnable() {
+			@Override
+			public void run() {
+				buffer.force();
+			}
+		});
+	}
+
+	/**
+	 * Counts one use of an item at a given minute, on the calling thread.
+	 * Package-private so tests can count uses without the writer thread.
+	 */
+	synchronized void increment(long key, int minute) {
+		int slot = findSlot(key);
+		if (slot != -1) {
+			float score = decay(buffer.getFloat(slot + 8),
+					buffer.getInt(slot + 12), minute);
+			buffer.putFloat(slot + 8, score + 1);
+			buffer.putInt(slot + 12, minute);
+			return;
+		}
+		// Takes the first empty slot, or the least used one in the probe range
+		int index = (int) (key ^ (key >>> 32)) & mask;
+		int victim = -1;
+		float victimScore = Float.MAX_VALUE;
+		for (int probe = 0; probe < MAX_PROBES; probe++) {
+			int candidate = HEADER_SIZE + ((index + probe) & mask) * SLOT_SIZE;
+			if (buffer.getLong(candidate) == 0) {
+				victim = candidate;
+				break;
+			}
+			float score = decay(buffer.getFloat(candidate + 8),
+					buffer.getInt(candidate + 12), minute);
+			if (score < victimScore) {
+				victim = candidate;
+				victimScore = score;
+			}
+		}
+		// Readers wait for the lock, so the slot changes as a whole
+		buffer.putFloat(victim + 8, 1);
+		buffer.putInt(victim + 12, minute);
+		buffer.putLong(victim, key);
+	}
+
+	/**
+	 * @return The buffer offset of the slot holding the key, or -1.
+	 */
+	private int findSlot(long key) {
+		int index = (int) (key ^ (key >>> 32)) & mask;
+		for (int probe = 0; probe < MAX_PROBES; probe++) {
+			int slot = HEADER_SIZE + ((index + probe) & mask) * SLOT_SIZE;
+			long slotKey = buffer.getLong(slot);
+			if (slotKey == key)
+				return slot;
+			if (slotKey == 0)
+				return -1;
+		}
+		return -1;
+	}
+
+	private float decay(float score, int lastMinute, int minute) {
+		int elapsed = minute - lastMinute;
+		if (elapsed <= 0)
+			return score;
+		return (float) (score * Math.pow(0.5, elapsed / halfLifeMinutes));
+	}
+
+	private static int currentMinute() {
+		return (int) (System.currentTimeMillis() / MINUTE);
+	}
+
+	/**
+	 * Orders a set of positions so the most used items get the easiest ones.
+	 * Used items take the positions nearest to the first position, best score
+	 * first. Unused items keep their relative order in the positions left, so
+	 * a menu without any use keeps its original order.
+	 * @param scores - Score of every item, in menu order.
+	 * @param count - Number of items.
+	 * @param first - Easiest position.
+	 * @param circular - True if the positions wrap around, as in a full ring.
+	 * @param positions - Receives the position of every item.
+	 * @param easiest - Work array of at least count entries, so ordering allocates nothing.
+	 */
+	public static void orderByUsage(float[] scores, int count, int first,
+			boolean circular, int[] positions, int[] easiest) {
+		for (int i = 0; i < count; i++)
+			positions[i] = -1;
+		// Positions ordered from the easiest out, alternating both sides
+		int filled = 0;
+		for (int distance = 0; filled < count; distance++) {
+			int after = first + distance;
+			int before = first - distance;
+			if (circular) {
+				after = ((after % count) + count) % count;
+				before = ((before % count) + count) % count;
+			}
+			if (after >= 0 && after < count)
+				easiest[filled++] = after;
+			if (distance > 0 && before != after && before >= 0
+					&& before < count && filled < count)
+				easiest[filled++] = before;
+		}
+
+		int rank = 0;
+		while (true) {
+			// Picks the best used item left, the first one on a tie
+			int best = -1;
+			for (int i = 0; i < count; i++) {
+				if (positions[i] == -1 && scores[i] > 0
+						&& (best == -1 || scores[i] > scores[best]))
+					best = i;
+			}
+			if (best == -1)
+				break;
+			positions[best] = easiest[rank++];
+		}
+		// Sorts the positions left, so unused items fill them in order
+		for (int i = rank + 1; i < count; i++) {
+			int position = easiest[i];
+			int j = i - 1;
+			while (j >= rank && easiest[j] > position) {
+				easiest[j + 1] = easiest[j];
+				j--;
+			}
+			easiest[j + 1] = position;
+		}
+		for (int i = 0; i < count; i++) {
+			if (positions[i] == -1)
+				positions[i] = easiest[rank++];
+		}
+	}
+
+	private static synchronized ExecutorService getWriter() {
+		if (writer == null) {
+			writer = RadialBackgroundExecutor
+					.newSingleThreadExecutor("RadialUsageStore");
+		}
+		return writer;
+	}
+}
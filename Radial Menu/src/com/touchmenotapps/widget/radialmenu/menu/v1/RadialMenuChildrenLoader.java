@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2012
+ * Jason Valestin (valestin@gmail.com ) and Arindam Nath (strider2023@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.touchmenotapps.widget.radialmenu.menu.v1;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.touchmenotapps.widget.radialmenu.RadialBackgroundExecutor;
+
+/**
+ * This class runs the children providers of the menu items on a background
+ * thread and hands the results back to the items on the main thread.
+ */
+public class RadialMenuChildrenLoader {
+
+	private static ExecutorService loader = null;
+	private static Handler mainHandler = null;
+
+	private RadialMenuChildrenLoader() {
+	}
+
+	/**
+	 * Loads the children of an item in the background. The result is given to
+	 * the item on the main thread.
+	 * @param item - Item whose children are needed.
+	 * @param provider - Provider to load the children with.
+	 */
+	protected static void load(final RadialMenuItem item,
+			final RadialMenuChildrenProvider provider) {
+		final Handler handler = getMainHandler();
+		getLoader().execute(new Runnable() {
+			@Override
+			public void run() {
+				List<RadialMenuItem> children = null;
+				boolean loaded = false;
+				try {
+					children = provider.loadChildren(item);
+					loaded = true;
+				} catch (RuntimeException e) {
+					Log.e(RadialMenuChildrenLoader.class.getName(),
+							"Could not load the children of " + item.getName(), e);
+				}
+				final List<RadialMenuItem> result = children;
+				final boolean success = loaded;
+				handler.post(new Runnable() {
+					@Override
+					public void run() {
+						item.deliverChildren(provider, result, success);
+					}
+				});
+			}
+		});
+	}
+
+	private static synchronized Handler getMainHandler() {
+		if (mainHandler == null)
+			mainHandler = new Handler(Looper.getMainLooper());
+		return mainHandler;
+	}
+
+	private static synchronized ExecutorService getLoader() {
+		if (loader == null) {
+			loader = RadialBackgroundExecutor
+					.newSingleThreadExecutor("RadialMenuChildrenLoader");
+		}
+		return loader;
+	}
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright (C) 2012
+ * Jason Valestin (valestin@gmail.com ) and Arindam Nath (strider2023@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.touchmenotapps.widget.radialmenu.menu.v1;
+
+import java.util.List;
+
+/**
+ * Interface for loading the child items of a menu item only when its ring is
+ * opened, for example from a database. The children are loaded on a
+ * background thread and kept by the item until they expire.
+ */
+public interface RadialMenuChildrenProvider {
+	/**
+	 * Loads the child items of a menu item. Called on a background thread.
+	 * @param item - Item whose children are needed.
+	 * @return The child items.
+	 */
+	public List<RadialMenuItem> loadChildren(RadialMenuItem item);
+}
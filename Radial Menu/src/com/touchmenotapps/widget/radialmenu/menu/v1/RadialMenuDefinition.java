@@ -0,0 +1,269 @@
+/*
+ * Copyright (C) 2012
+ * Jason Valestin (valestin@gmail.com ) and Arindam Nath (strider2023@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.touchmenotapps.widget.radialmenu.menu.v1;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+import android.content.Context;
+import android.content.res.Resources;
+
+/**
+ * This class loads a menu compiled by RadialMenuCompiler into a
+ * RadialMenuTree. The compiled menu is read in place from a memory-mapped file
+ * or a direct buffer. Only the first ring is decoded on load, the children of
+ * every other item are decoded the first time its ring opens.
+ * 
+ * <strong> Layout </strong> (big endian)
+ * 
+ * Header: magic, version, node count, root count, string count, string
+ * offsets offset, nodes offset, one int each.
+ * Nodes: NODE_SIZE bytes each, in breadth first order so the children of a
+ * node are contiguous. Every node holds its name, label and icon as string
+ * indexes (-1 for none), its flags, its first child and its child count.
+ * Strings: an int offset per string, each pointing to an unsigned short byte
+ * length followed by the UTF-8 bytes.
+ * <strong> Usage </strong>
+ * 
+ * RadialMenuTree tree = RadialMenuDefinition.load(context, menuFile);
+ * pieMenu.addMenuEntry(tree.getRootItems());
+ */
+public class RadialMenuDefinition implements RadialMenuTree.ChildrenSource {
+
+	protected static final int MAGIC = 0x524D4E55; // "RMNU"
+	protected static final int VERSION = 1;
+	protected static final int HEADER_SIZE = 28;
+	protected static final int NODE_SIZE = 24;
+	protected static final int NO_STRING = -1;
+
+	protected static final int NODE_FLAG_DISABLED = 1;
+	protected static final int NODE_FLAG_LABEL_RESOURCE = 2; // label is a string resource name
+
+	private static final int UNRESOLVED = -1;
+
+	private final ByteBuffer buffer;
+	private final Resources resources;
+	private final String packageName;
+	private final int nodeCount;
+	private final int stringCount;
+	private final int stringOffsets;
+	private final int nodes;
+	private int[] records = new int[16]; // compiled node of every tree node
+	// Resource ID of every string, looked up by name once per string
+	private final int[] drawableIds;
+	private final int[] stringIds;
+
+	private RadialMenuDefinition(ByteBuffer buffer, Resources resources,
+			String packageName) {
+		this.buffer = buffer;
+		this.resources = resources;
+		this.packageName = packageName;
+		if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC)
+			throw new IllegalArgumentException("Not a compiled radial menu");
+		if (buffer.getInt(4) != VERSION)
+			throw new IllegalArgumentException("Unsupported compiled menu version "
+					+ buffer.getInt(4));
+		this.nodeCount = buffer.getInt(8);
+		this.stringCount = buffer.getInt(16);
+		this.stringOffsets = buffer.getInt(20);
+		this.nodes = buffer.getInt(24);
+		if (nodes + (long) nodeCount * NODE_SIZE > buffer.limit()
+				|| stringOffsets + (long) stringCount * 4 > buffer.limit())
+			throw new IllegalArgumentException("Truncated compiled radial menu");
+		this.drawableIds = new int[stringCount];
+		this.stringIds = new int[stringCount];
+		Arrays.fill(drawableIds, UNRESOLVED);
+		Arrays.fill(stringIds, UNRESOLVED);
+	}
+
+	/**
+	 * Loads a compiled menu from a file. The file is memory-mapped, not read.
+	 * @param context - Context the icons and labels are resolved with.
+	 * @param file - Compiled menu file.
+	 * @return The menu tree.
+	 * @throws IOException If the file can't be mapped.
+	 */
+	public static RadialMenuTree load(Context context, File file)
+			throws IOException {
+		FileInputStream in = new FileInputStream(file);
+		try {
+			FileChannel channel = in.getChannel();
+			// The mapping stays valid after the file is closed
+			return load(context, channel.map(FileChannel.MapMode.READ_ONLY, 0,
+					channel.size()));
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Loads a compiled menu from a raw resource. Raw resources may be
+	 * compressed in the package, so the menu is copied once into a direct
+	 * buffer.
+	 * @param context - Context the icons and labels are resolved with.
+	 * @param rawResId - Raw resource ID of the compiled menu.
+	 * @return The menu tree.
+	 * @throws IOException If the resource can't be read.
+	 */
+	public static RadialMenuTree load(Context context, int rawResId)
+			throws IOException {
+		InputStream in = context.getResources().openRawResource(rawResId);
+		try {
+			byte[] chunk = new byte[8192];
+			ByteBuffer buffer = ByteBuffer.allocateDirect(Math.max(
+					in.available(), HEADER_SIZE));
+			int read;
+			while ((read = in.read(chunk)) != -1) {
+				if (buffer.remaining() < read) {
+					ByteBuffer grown = ByteBuffer.allocateDirect(Math.max(
+							buffer.capacity() * 2, buffer.position() + read));
+					buffer.flip();
+					grown.put(buffer);
+					buffer = grown;
+				}
+				buffer.put(chunk, 0, read);
+			}
+			buffer.flip();
+			return load(context, buffer);
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Loads a compiled menu from a buffer, which is read in place and must
+	 * not change while the tree is used.
+	 * @param context - Context the icons and labels are resolved with.
+	 * @param buffer - Compiled menu, from position 0.
+	 * @return The menu tree.
+	 */
+	public static RadialMenuTree load(Context context, ByteBuffer buffer) {
+		return load(context.getResources(), context.getPackageName(), buffer);
+	}
+
+	/**
+	 * Loads a compiled menu with the resources of a package. Tests pass null
+	 * resources for menus without icons or string resources.
+	 */
+	static RadialMenuTree load(Resources resources, String packageName,
+			ByteBuffer buffer) {
+		RadialMenuDefinition definition = new RadialMenuDefinition(buffer,
+				resources, packageName);
+		RadialMenuTree tree = new RadialMenuTree(resources,
+				definition.nodeCount);
+		tree.setChildrenSource(definition);
+		int rootCount = buffer.getInt(12);
+		for (int record = 0; record < rootCount; record++)
+			definition.addNode(tree, RadialMenuTree.NO_NODE, record);
+		return tree;
+	}
+
+	@Override
+	public void addChildren(RadialMenuTree tree, int node) {
+		int record = records[node];
+		int offset = nodes + record * NODE_SIZE;
+		int first = buffer.getInt(offset + 16);
+		int count = buffer.getInt(offset + 20);
+		for (int child = first; child < first + count; child++)
+			addNode(tree, node, child);
+	}
+
+	/**
+	 * Decodes one compiled node and adds it to the tree.
+	 */
+	private void addNode(RadialMenuTree tree, int parent, int record) {
+		if (record < 0 || record >= nodeCount)
+			throw new IllegalArgumentException("Bad node " + record
+					+ " in compiled radial menu");
+		int offset = nodes + record * NODE_SIZE;
+		int nodeFlags = buffer.getInt(offset + 12);
+		int flags = (nodeFlags & NODE_FLAG_DISABLED) != 0 ? RadialMenuTree.FLAG_DISABLED
+				: 0;
+		int icon = getIdentifier(drawableIds, buffer.getInt(offset + 8),
+				"drawable");
+
+		int node;
+		int label = buffer.getInt(offset + 4);
+		if (label != NO_STRING && (nodeFlags & NODE_FLAG_LABEL_RESOURCE) != 0) {
+			// Resolved by the tree the first time the label is shown
+			node = tree.addNode(parent, getIdentifier(stringIds, label,
+					"string"), icon, flags);
+		} else {
+			node = tree.addNode(parent, readString(label), icon, flags);
+		}
+		String name = readString(buffer.getInt(offset));
+		if (name != null)
+			tree.setName(node, name);
+		if (buffer.getInt(offset + 20) > 0)
+			tree.deferChildren(node);
+
+		if (node >= records.length) {
+			int[] grown = new int[Math.max(node + 1, records.length * 2)];
+			System.arraycopy(records, 0, grown, 0, records.length);
+			records = grown;
+		}
+		records[node] = record;
+	}
+
+	/**
+	 * Looks up the resource named by a string. Resources.getIdentifier is a
+	 * slow lookup by name, so it is only called once per string.
+	 * @param ids - Resource ID cache of the resource type.
+	 * @param index - String index.
+	 * @param type - Resource type.
+	 * @return The resource ID, 0 if there is no string or no such resource.
+	 */
+	private int getIdentifier(int[] ids, int index, String type) {
+		if (index == NO_STRING)
+			return 0;
+		checkString(index);
+		if (ids[index] == UNRESOLVED)
+			ids[index] = resources.getIdentifier(readString(index), type,
+					packageName);
+		return ids[index];
+	}
+
+	private void checkString(int index) {
+		if (index < 0 || index >= stringCount)
+			throw new IllegalArgumentException("Bad string " + index
+					+ " in compiled radial menu");
+	}
+
+	private String readString(int index) {
+		if (index == NO_STRING)
+			return null;
+		checkString(index);
+		int offset = buffer.getInt(stringOffsets + index * 4);
+		int length = buffer.getShort(offset) & 0xFFFF;
+		byte[] bytes = new byte[length];
+		ByteBuffer view = buffer.duplicate();
+		view.position(offset + 2);
+		view.get(bytes);
+		try {
+			return new String(bytes, "UTF-8");
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
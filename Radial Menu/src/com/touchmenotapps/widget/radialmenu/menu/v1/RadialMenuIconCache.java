@@ -0,0 +1,207 @@
+/*
+ * Copyright (C) 2012
+ * Jason Valestin (valestin@gmail.com ) and Arindam Nath (strider2023@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.touchmenotapps.widget.radialmenu.menu.v1;
+
+import android.content.res.Resources;
+import android.graphics.drawable.Drawable;
+import android.util.SparseArray;
+
+/**
+ * This class caches the menu item icons of every radial menu widget in the
+ * process. Icons are keyed by resource ID and hold their intrinsic size and
+ * one mutated Drawable per alpha value, so drawing and layout only go to the
+ * Resources the first time an icon is used.
+ * The least recently used icon is evicted once the cache is full.
+ */
+public class RadialMenuIconCache {
+
+	private static final int DEFAULT_MAX_ICONS = 64;
+
+	private static RadialMenuIconCache instance = null;
+
+	private final SparseArray<Icon> icons = new SparseArray<Icon>();
+	private int maxIcons = DEFAULT_MAX_ICONS;
+	private long accessClock = 0;
+	private int hitCount = 0;
+	private int missCount = 0;
+	private int evictionCount = 0;
+
+	/**
+	 * @return The icon cache shared by all radial menu widgets.
+	 */
+	public static synchronized RadialMenuIconCache getInstance() {
+		if (instance == null)
+			instance = new RadialMenuIconCache();
+		return instance;
+	}
+
+	/**
+	 * Get the cached icon for a resource ID, loading it on the first use.
+	 * @param resources - Resources to load the icon from on a miss.
+	 * @param iconId - Icon resource ID.
+	 * @return The cached icon.
+	 */
+	protected synchronized Icon get(Resources resources, int iconId) {
+		Icon icon = icons.get(iconId);
+		if (icon != null) {
+			hitCount++;
+		} else {
+			missCount++;
+			icon = new Icon(resources, iconId);
+			icons.put(iconId, icon);
+			trimToSize(maxIcons);
+		}
+		icon.lastAccess = ++accessClock;
+		return icon;
+	}
+
+	private void trimToSize(int size) {
+		while (icons.size() > size) {
+			int eldest = 0;
+			for (int i = 1; i < icons.size(); i++) {
+				if (icons.valueAt(i).lastAccess < icons.valueAt(eldest).lastAccess)
+					eldest = i;
+			}
+			icons.remove(icons.keyAt(eldest));
+			evictionCount++;
+		}
+	}
+
+	/**
+	 * Set the number of icons kept in the cache.
+	 * @param maxIcons - Maximum number of cached icons.
+	 */
+	public synchronized void setMaxIcons(int maxIcons) {
+		this.maxIcons = maxIcons;
+		trimToSize(maxIcons);
+	}
+
+	/**
+	 * Removes all the icons from the cache.
+	 */
+	public synchronized void clear() {
+		icons.clear();
+	}
+
+	/**
+	 * @return Number of lookups served from the cache.
+	 */
+	public synchronized int getHitCount() {
+		return hitCount;
+	}
+
+	/**
+	 * @return Number of lookups that had to load the icon.
+	 */
+	public synchronized int getMissCount() {
+		return missCount;
+	}
+
+	/**
+	 * @return Number of icons evicted to stay within the maximum size.
+	 */
+	public synchronized int getEvictionCount() {
+		return evictionCount;
+	}
+
+	/**
+	 * This class holds a single cached icon.
+	 */
+	protected static class Icon {
+		private final Resources resources;
+		private final int iconId;
+		private final Drawable drawable;
+		private final int intrinsicWidth;
+		private final int intrinsicHeight;
+		private final SparseArray<Drawable> alphaStates = new SparseArray<Drawable>(2);
+		private int clampMin = -1;
+		private int clampMax = -1;
+		private int clampedWidth;
+		private int clampedHeight;
+		private long lastAccess;
+
+		private Icon(Resources resources, int iconId) {
+			this.resources = resources;
+			this.iconId = iconId;
+			this.drawable = resources.getDrawable(iconId);
+			this.intrinsicWidth = drawable.getIntrinsicWidth();
+			this.intrinsicHeight = drawable.getIntrinsicHeight();
+		}
+
+		/**
+		 * Get the icon drawable for an alpha value. Every alpha value gets
+		 * its own mutated drawable so changing it never affects the others.
+		 * @param alpha - Alpha blend value.
+		 * @return The drawable with the alpha applied.
+		 */
+		protected synchronized Drawable getDrawable(int alpha) {
+			Drawable state = alphaStates.get(alpha);
+			if (state == null) {
+				Drawable.ConstantState constantState = drawable.getConstantState();
+				if (constantState != null)
+					state = constantState.newDrawable(resources).mutate();
+				else
+					state = resources.getDrawable(iconId).mutate();
+				state.setAlpha(alpha);
+				alphaStates.put(alpha, state);
+			}
+			return state;
+		}
+
+		/**
+		 * @param minSize - Minimum scaled size.
+		 * @param maxSize - Maximum scaled size.
+		 * @return The icon width clamped to the given sizes.
+		 */
+		protected synchronized int getWidth(int minSize, int maxSize) {
+			clamp(minSize, maxSize);
+			return clampedWidth;
+		}
+
+		/**
+		 * @param minSize - Minimum scaled size.
+		 * @param maxSize - Maximum scaled size.
+		 * @return The icon height clamped to the given sizes.
+		 */
+		protected synchronized int getHeight(int minSize, int maxSize) {
+			clamp(minSize, maxSize);
+			return clampedHeight;
+		}
+
+		private void clamp(int minSize, int maxSize) {
+			if (minSize != clampMin || maxSize != clampMax) {
+				clampMin = minSize;
+				clampMax = maxSize;
+				clampedWidth = clamp(intrinsicWidth, minSize, maxSize);
+				clampedHeight = clamp(intrinsicHeight, minSize, maxSize);
+			}
+		}
+
+		private static int clamp(int iconSize, int minSize, int maxSize) {
+			if (iconSize > minSize) {
+				if (iconSize > maxSize) {
+					return maxSize;
+				} else { // iconSize < maxSize
+					return iconSize;
+				}
+			} else { // iconSize < minSize
+				return minSize;
+			}
+		}
+	}
+}
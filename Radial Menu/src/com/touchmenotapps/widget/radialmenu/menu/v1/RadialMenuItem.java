@@ -17,7 +17,11 @@
 
 package com.touchmenotapps.widget.radialmenu.menu.v1;
 
+import java.util.ArrayList;
 import java.util.List;
+
+import android.graphics.Paint;
+import android.os.SystemClock;
 import android.util.Log;
 
 /**
@@ -28,11 +32,28 @@ import android.util.Log;
  */
 public class RadialMenuItem implements RadialMenuInterface {
 
+	protected static final int CHANGED_LABEL = 1;
+	protected static final int CHANGED_ICON = 2;
+	protected static final int CHANGED_ENABLED = 4;
+	protected static final int CHANGED_CHILDREN = 8;
+	protected static final int CHANGED_BADGE = 16;
+	protected static final int CHANGED_WEIGHT = 32;
+
 	private String menuName = "Empty";
 	private String menuLabel = null;
 	private int menuIcon = 0;
 	private List<RadialMenuItem> menuChildren = null;
 	private RadialMenuItemClickListener menuListener = null;
+	private RadialMenuLabelLayout labelLayout = null;
+	private RadialMenuChildrenProvider childrenProvider = null;
+	private long childrenExpiry = 0;
+	private long childrenLoadTime = 0;
+	private boolean childrenLoaded = false;
+	private List<OnChildrenLoadedListener> childrenListeners = null;
+	private boolean menuEnabled = true;
+	private volatile int badgeCount = 0;
+	private float weight = 1;
+	private List<OnItemChangedListener> itemListeners = null;
 	
 	/**
 	 * Creates an instance of the RadialMenuItem.
@@ -51,7 +72,92 @@ public class RadialMenuItem implements RadialMenuInterface {
 	 * <strong>secondChildItem.setDisplayIcon(R.drawable.ic_launcher);</strong>
 	 */
 	public void setDisplayIcon(int displayIcon) {
+		if (this.menuIcon == displayIcon)
+			return;
 		this.menuIcon = displayIcon;
+		notifyItemChanged(CHANGED_ICON);
+	}
+	
+	/**
+	 * Set menu item label. A widget showing the item only redraws its wedge.
+	 * @param displayName - (String) Pass null to show no label.
+	 */
+	public void setDisplayName(String displayName) {
+		if (displayName == null ? menuLabel == null : displayName.equals(menuLabel))
+			return;
+		this.menuLabel = displayName;
+		notifyItemChanged(CHANGED_LABEL);
+	}
+	
+	/**
+	 * Enable or disable the menu item. A disabled item is greyed out and
+	 * pressing it does nothing.
+	 * @param enabled - (boolean) False to disable the item.
+	 */
+	public void setEnabled(boolean enabled) {
+		if (this.menuEnabled == enabled)
+			return;
+		this.menuEnabled = enabled;
+		notifyItemChanged(CHANGED_ENABLED);
+	}
+	
+	/**
+	 * @return True if the item can be pressed.
+	 */
+	public boolean isEnabled() {
+		return menuEnabled;
+	}
+	
+	/**
+	 * Set the count shown in a badge on the item, such as unread messages.
+	 * Can be called from any thread and as often as needed, a widget showing
+	 * the item redraws the badges that changed at most once per frame.
+	 * @param count - (int) Count to show. Pass 0 to hide the badge.
+	 */
+	public void setBadgeCount(int count) {
+		if (this.badgeCount == count)
+			return;
+		this.badgeCount = count;
+		synchronized (this) {
+			if (itemListeners == null)
+				return;
+			// Listeners only schedule a redraw for badges, so they are told
+			// without copying the list
+			for (int i = 0; i < itemListeners.size(); i++) {
+				OnItemChangedListener listener = itemListeners.get(i);
+				if (itemListeners.indexOf(listener) == i)
+					listener.onItemChanged(this, CHANGED_BADGE);
+			}
+		}
+	}
+	
+	/**
+	 * @return The count shown in the badge, 0 if no badge is shown.
+	 */
+	public int getBadgeCount() {
+		return badgeCount;
+	}
+	
+	/**
+	 * Set how much of the ring the item takes, relative to the other items
+	 * of the ring. An item with weight 2 gets a wedge twice as wide as an
+	 * item with weight 1.
+	 * @param weight - (float) Weight, greater than 0. The default is 1.
+	 */
+	public void setWeight(float weight) {
+		if (!(weight > 0) || Float.isInfinite(weight))
+			throw new IllegalArgumentException("Invalid weight: " + weight);
+		if (this.weight == weight)
+			return;
+		this.weight = weight;
+		notifyItemChanged(CHANGED_WEIGHT);
+	}
+	
+	/**
+	 * @return The weight of the item in its ring.
+	 */
+	public float getWeight() {
+		return weight;
 	}
 	
 	/**
@@ -68,6 +174,160 @@ public class RadialMenuItem implements RadialMenuInterface {
 	 */
 	public void setMenuChildren(List<RadialMenuItem> childItems) {
 		this.menuChildren = childItems;
+		this.childrenLoaded = true;
+		this.childrenLoadTime = SystemClock.uptimeMillis();
+		notifyItemChanged(CHANGED_CHILDREN);
+	}
+	
+	/**
+	 * Set a provider that loads the menu child items in the background the
+	 * first time the item is opened. The loaded items are kept until they
+	 * expire.
+	 * @param provider - Provider of the child items.
+	 * @param expiryMillis - Time in milliseconds the loaded items are kept. Pass 0 to keep them.
+	 */
+	public void setChildrenProvider(RadialMenuChildrenProvider provider, long expiryMillis) {
+		this.childrenProvider = provider;
+		this.childrenExpiry = expiryMillis;
+		this.childrenLoaded = false;
+		this.menuChildren = null;
+		notifyItemChanged(CHANGED_CHILDREN);
+	}
+	
+	/**
+	 * Drops the loaded child items so they are loaded again the next time the
+	 * item is opened.
+	 */
+	public void invalidateChildren() {
+		this.childrenLoaded = false;
+	}
+	
+	/**
+	 * @return True if the item has child items, or a provider to load them.
+	 */
+	public boolean hasChildren() {
+		return menuChildren != null || childrenProvider != null;
+	}
+	
+	/**
+	 * @return True if the child items can be used without loading them.
+	 */
+	protected boolean areChildrenLoaded() {
+		if (childrenProvider == null)
+			return true;
+		return childrenLoaded
+				&& (childrenExpiry <= 0 || SystemClock.uptimeMillis() - childrenLoadTime < childrenExpiry);
+	}
+	
+	/**
+	 * Loads the child items through the provider if they are not loaded yet.
+	 * Must be called on the main thread. Several requests for the same item
+	 * share a single load.
+	 * @param listener - Told on the main thread once the items are loaded.
+	 */
+	protected void requestChildren(OnChildrenLoadedListener listener) {
+		if (areChildrenLoaded()) {
+			listener.onChildrenLoaded(this);
+			return;
+		}
+		if (childrenListeners == null) {
+			childrenListeners = new ArrayList<OnChildrenLoadedListener>(1);
+			RadialMenuChildrenLoader.load(this, childrenProvider);
+		}
+		if (!childrenListeners.contains(listener))
+			childrenListeners.add(listener);
+	}
+	
+	/**
+	 * Receives the result of a load on the main thread.
+	 * @param provider - Provider the items were loaded with.
+	 * @param children - Loaded child items.
+	 * @param success - False if the provider failed.
+	 */
+	protected void deliverChildren(RadialMenuChildrenProvider provider,
+			List<RadialMenuItem> children, boolean success) {
+		if (success && provider == childrenProvider) {
+			this.menuChildren = children;
+			this.childrenLoaded = true;
+			this.childrenLoadTime = SystemClock.uptimeMillis();
+		}
+		List<OnChildrenLoadedListener> listeners = childrenListeners;
+		childrenListeners = null;
+		if (listeners != null) {
+			for (int i = 0; i < listeners.size(); i++)
+				listeners.get(i).onChildrenLoaded(this);
+		}
+	}
+	
+	/**
+	 * Registers a listener told when the label, icon, enabled state or child
+	 * items of the item change. A listener added several times has to be
+	 * removed as many times.
+	 * @param listener - Listener to add.
+	 */
+	protected synchronized void addItemListener(OnItemChangedListener listener) {
+		if (itemListeners == null)
+			itemListeners = new ArrayList<OnItemChangedListener>(1);
+		itemListeners.add(listener);
+	}
+	
+	/**
+	 * Removes one registration of a listener.
+	 * @param listener - Listener to remove.
+	 */
+	protected synchronized void removeItemListener(OnItemChangedListener listener) {
+		if (itemListeners != null)
+			itemListeners.remove(listener);
+	}
+	
+	/**
+	 * @return True if any listener is registered on the item.
+	 */
+	protected synchronized boolean hasItemListeners() {
+		return itemListeners != null && !itemListeners.isEmpty();
+	}
+	
+	/**
+	 * Tells the registered listeners that the item changed.
+	 * @param what - CHANGED_LABEL, CHANGED_ICON, CHANGED_ENABLED, CHANGED_CHILDREN or CHANGED_WEIGHT.
+	 */
+	protected void notifyItemChanged(int what) {
+		List<OnItemChangedListener> listeners;
+		synchronized (this) {
+			if (itemListeners == null || itemListeners.isEmpty())
+				return;
+			// Listeners may unregister while they are told
+			listeners = new ArrayList<OnItemChangedListener>(itemListeners);
+		}
+		for (int i = 0; i < listeners.size(); i++) {
+			OnItemChangedListener listener = listeners.get(i);
+			// A listener registered for several rings is told once
+			if (listeners.indexOf(listener) == i)
+				listener.onItemChanged(this, what);
+		}
+	}
+	
+	/**
+	 * @return The label layout measured by the last draw, or null.
+	 */
+	protected RadialMenuLabelLayout peekLabelLayout() {
+		return labelLayout;
+	}
+	
+	/**
+	 * Get the measured layout of the label. The label is only measured again
+	 * if the label, the text size, the typeface or the layout generation
+	 * changed since the last call.
+	 * @param paint - Paint holding the text size and typeface.
+	 * @param generation - Layout generation of the owning widget.
+	 * @return The label layout.
+	 */
+	protected RadialMenuLabelLayout getLabelLayout(Paint paint, int generation) {
+		if (labelLayout == null)
+			labelLayout = new RadialMenuLabelLayout();
+		if (!labelLayout.matches(getLabel(), paint, generation))
+			labelLayout.measure(getLabel(), paint, generation);
+		return labelLayout;
 	}
 	
 	@Override
@@ -87,6 +347,8 @@ public class RadialMenuItem implements RadialMenuInterface {
 
 	@Override
 	public List<RadialMenuItem> getChildren() {
+		if (!areChildrenLoaded())
+			return null;
 		return menuChildren;
 	}
 
@@ -100,4 +362,22 @@ public class RadialMenuItem implements RadialMenuInterface {
 	public interface RadialMenuItemClickListener {
 		public void execute();
 	}
+	
+	protected interface OnChildrenLoadedListener {
+		/**
+		 * Called on the main thread once a load of the child items finished.
+		 * @param item - Item whose child items were loaded.
+		 */
+		public void onChildrenLoaded(RadialMenuItem item);
+	}
+	
+	protected interface OnItemChangedListener {
+		/**
+		 * Called on the main thread when a property of the item changed.
+		 * CHANGED_BADGE is told on the thread that set the badge count.
+		 * @param item - Item that changed.
+		 * @param what - CHANGED_LABEL, CHANGED_ICON, CHANGED_ENABLED, CHANGED_CHILDREN, CHANGED_BADGE or CHANGED_WEIGHT.
+		 */
+		public void onItemChanged(RadialMenuItem item, int what);
+	}
 }
@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2012
+ * Jason Valestin (valestin@gmail.com ) and Arindam Nath (strider2023@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.touchmenotapps.widget.radialmenu.menu.v1;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.Typeface;
+
+/**
+ * This class holds the measured layout of a menu item label.
+ * The label is split into lines and measured once, and the baseline of every
+ * line is stored relative to the icon rect of the wedge, so drawing the label
+ * does not need to measure anything.
+ */
+public class RadialMenuLabelLayout {
+
+	private static final int LINE_SPACING = 3;
+
+	private String label = null;
+	private float textSize = -1;
+	private Typeface typeface = null;
+	private int generation = -1;
+
+	private String[] lines = new String[0];
+	private Rect[] lineBounds = new Rect[0];
+	private float[] lineLeft = new float[0]; // offset from the icon rect center
+	private float[] lineBottomBelowIcon = new float[0]; // offset from the icon rect bottom
+	private float[] lineBottomCentered = new float[0]; // offset from the icon rect center
+	private float textHeight = 0;
+	private int textWidth = 0; // width of the widest line
+
+	/**
+	 * Checks if the layout was measured for the given label and text style.
+	 * @param label - Label text.
+	 * @param paint - Paint holding the text size and typeface.
+	 * @param generation - Layout generation of the owning widget.
+	 * @return True if the layout can be drawn as is.
+	 */
+	protected boolean matches(String label, Paint paint, int generation) {
+		return this.generation == generation
+				&& this.textSize == paint.getTextSize()
+				&& this.typeface == paint.getTypeface()
+				&& (this.label == null ? label == null : this.label.equals(label));
+	}
+
+	/**
+	 * Splits the label on "new line" characters and measures every line.
+	 * @param label - Label text.
+	 * @param paint - Paint holding the text size and typeface.
+	 * @param generation - Layout generation of the owning widget.
+	 */
+	protected void measure(String label, Paint paint, int generation) {
+		this.label = label;
+		this.textSize = paint.getTextSize();
+		this.typeface = paint.getTypeface();
+		this.generation = generation;
+
+		// This will look for a "new line" and split into multiple lines
+		String[] stringArray = label != null ? label.split("\n") : new String[0];
+		int count = stringArray.length;
+		if (lineBounds.length < count) {
+			Rect[] grown = new Rect[count];
+			System.arraycopy(lineBounds, 0, grown, 0, lineBounds.length);
+			for (int j = lineBounds.length; j < count; j++)
+				grown[j] = new Rect();
+			lineBounds = grown;
+		}
+		lineLeft = new float[count];
+		lineBottomBelowIcon = new float[count];
+		lineBottomCentered = new float[count];
+
+		// gets total height
+		textHeight = 0;
+		textWidth = 0;
+		for (int j = 0; j < count; j++) {
+			Rect rect = lineBounds[j];
+			paint.getTextBounds(stringArray[j], 0, stringArray[j].length(), rect);
+			textHeight = textHeight + (rect.height() + LINE_SPACING);
+			textWidth = Math.max(textWidth, rect.width());
+		}
+
+		float textBottom = 0;
+		for (int j = 0; j < count; j++) {
+			Rect rect = lineBounds[j];
+			textBottom = textBottom + (rect.height() + LINE_SPACING);
+			lineLeft[j] = -(rect.width() / 2) - rect.left;
+			lineBottomBelowIcon[j] = -getIconShift() + textBottom - rect.bottom;
+			lineBottomCentered[j] = -(textHeight / 2) + textBottom - rect.bottom;
+		}
+		lines = stringArray;
+	}
+
+	/**
+	 * @return How far the icon is moved up to make room for the label.
+	 */
+	protected int getIconShift() {
+		return (int) textHeight / 2;
+	}
+
+	/**
+	 * Adds the area the label is drawn in to a rect.
+	 * @param iconRect - Unshifted icon rect of the wedge.
+	 * @param belowIcon - True if the label is drawn below the icon.
+	 * @param bounds - Rect the area is added to.
+	 */
+	protected void unionBounds(Rect iconRect, boolean belowIcon, Rect bounds) {
+		if (lines.length == 0)
+			return;
+		int centerX = iconRect.centerX();
+		int top = belowIcon ? iconRect.bottom - getIconShift() : iconRect
+				.centerY() - (int) textHeight / 2;
+		bounds.union(centerX - textWidth / 2 - LINE_SPACING, top
+				- LINE_SPACING, centerX + textWidth / 2 + LINE_SPACING, top
+				+ (int) textHeight + LINE_SPACING);
+	}
+
+	/**
+	 * Draws the label below the icon of the wedge.
+	 * @param c - Canvas to draw on.
+	 * @param paint - Paint the layout was measured with.
+	 * @param iconRect - Unshifted icon rect of the wedge.
+	 */
+	protected void drawBelowIcon(Canvas c, Paint paint, Rect iconRect) {
+		float centerX = iconRect.centerX();
+		float bottom = iconRect.bottom;
+		for (int j = 0; j < lines.length; j++) {
+			c.drawText(lines[j], centerX + lineLeft[j], bottom
+					+ lineBottomBelowIcon[j], paint);
+		}
+	}
+
+	/**
+	 * Draws the label centered on the icon rect of the wedge.
+	 * @param c - Canvas to draw on.
+	 * @param paint - Paint the layout was measured with.
+	 * @param iconRect - Icon rect of the wedge.
+	 */
+	protected void drawCentered(Canvas c, Paint paint, Rect iconRect) {
+		float centerX = iconRect.centerX();
+		float centerY = iconRect.centerY();
+		for (int j = 0; j < lines.length; j++) {
+			c.drawText(lines[j], centerX + lineLeft[j], centerY
+					+ lineBottomCentered[j], paint);
+		}
+	}
+}
@@ -0,0 +1,354 @@
+/*
+ * Copyright (C) 2012
+ * Jason Valestin (valestin@gmail.com ) and Arindam Nath (strider2023@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.touchmenotapps.widget.radialmenu.menu.v1;
+
+import java.util.List;
+
+import android.graphics.Rect;
+
+import com.touchmenotapps.widget.radialmenu.RadialSectorResolver;
+
+/**
+ * This class holds one ring of the radial menu: the items shown in it, their
+ * wedges and icon bounds, and which wedge opened the next ring. The wedges
+ * and rects are kept between layouts so they can be rebuilt in place.
+ * Every wedge is sized by the weight of the item it shows.
+ * While an observer is set, it is registered on every item shown in the ring.
+ */
+public class RadialMenuRing {
+
+	private static final int MAX_BADGE_COUNT = 99; // Larger counts show "99+"
+
+	private final RadialMenuItem parent;
+	private List<RadialMenuItem> items = null;
+	// Items as of the last layout, the list may be changed in place
+	private RadialMenuItem[] listedItems = new RadialMenuItem[0];
+	// Item shown in every wedge, the listed items unless reordered
+	private RadialMenuItem[] shownItems = new RadialMenuItem[0];
+	private long usageKey = 0;
+	private RadialMenuWedge[] wedges = new RadialMenuWedge[0];
+	private Rect[] iconRects = new Rect[0];
+	private int[] badgeCounts = new int[0]; // counts the badges were drawn for
+	private String[] badgeTexts = new String[0];
+	private int wedgeQty = 0;
+	private int level = -1;
+	private int innerRadius;
+	private int outerRadius;
+	private float[] angles = new float[1]; // wedge boundaries, wedgeQty + 1
+	private float[] weights = new float[0];
+	private int layoutVersion = -1;
+	private int openedIndex = -1;
+	private RadialMenuItem.OnItemChangedListener observer = null;
+
+	/**
+	 * @param parent - Item whose children are shown in the ring, or null for
+	 *            the first ring.
+	 */
+	protected RadialMenuRing(RadialMenuItem parent) {
+		this.parent = parent;
+	}
+
+	/**
+	 * Checks if the ring geometry can be drawn as is.
+	 * @param items - Items the ring should show.
+	 * @param level - Level the ring is shown at, 0 being the first ring.
+	 * @param layoutVersion - Layout version of the owning widget.
+	 * @return True if the ring was laid out for the same items and level.
+	 */
+	protected boolean isLaidOut(List<RadialMenuItem> items, int level,
+			int layoutVersion) {
+		return this.items == items && this.level == level
+				&& this.layoutVersion == layoutVersion
+				&& items != null && this.wedgeQty == items.size();
+	}
+
+	/**
+	 * Sets the items and the ring geometry, and makes sure there is a wedge
+	 * and an icon rect for every item. The caller then updates every wedge
+	 * and rect in place.
+	 * @param items - Items shown in the ring.
+	 * @param level - Level the ring is shown at.
+	 * @param innerRadius - Inner border radius.
+	 * @param outerRadius - Outer border radius.
+	 * @param layoutVersion - Layout version of the owning widget.
+	 */
+	protected void setLayout(List<RadialMenuItem> items, int level,
+			int innerRadius, int outerRadius, int layoutVersion) {
+		this.items = items;
+		this.level = level;
+		this.innerRadius = innerRadius;
+		this.outerRadius = outerRadius;
+		this.layoutVersion = layoutVersion;
+		if (observer != null)
+			unobserveItems();
+		int oldQty = wedgeQty;
+		this.wedgeQty = items != null ? items.size() : 0;
+		if (shownItems.length < wedgeQty) {
+			listedItems = new RadialMenuItem[wedgeQty];
+			shownItems = new RadialMenuItem[wedgeQty];
+			badgeCounts = new int[wedgeQty];
+			badgeTexts = new String[wedgeQty];
+			angles = new float[wedgeQty + 1];
+			weights = new float[wedgeQty];
+		}
+		for (int i = 0; i < wedgeQty; i++) {
+			listedItems[i] = items.get(i);
+			shownItems[i] = listedItems[i];
+			updateBadge(i);
+		}
+		for (int i = wedgeQty; i < oldQty; i++) {
+			listedItems[i] = null;
+			shownItems[i] = null;
+			badgeTexts[i] = null;
+		}
+		if (observer != null)
+			observeItems();
+		if (wedges.length < wedgeQty) {
+			RadialMenuWedge[] grownWedges = new RadialMenuWedge[wedgeQty];
+			System.arraycopy(wedges, 0, grownWedges, 0, wedges.length);
+			Rect[] grownRects = new Rect[wedgeQty];
+			System.arraycopy(iconRects, 0, grownRects, 0, iconRects.length);
+			for (int i = wedges.length; i < wedgeQty; i++) {
+				grownWedges[i] = new RadialMenuWedge(0, 0, 0, 0, 0, 0);
+				grownRects[i] = new Rect();
+			}
+			wedges = grownWedges;
+			iconRects = grownRects;
+		}
+	}
+
+	/**
+	 * Splits the ring between the shown items by their weights.
+	 * @param centerAngle - Angle the first wedge is centered on.
+	 */
+	protected void layoutAngles(float centerAngle) {
+		float total = 0;
+		for (int i = 0; i < wedgeQty; i++) {
+			weights[i] = shownItems[i].getWeight();
+			total += weights[i];
+		}
+		float startAngle = wedgeQty > 0 ? centerAngle - 180 * weights[0]
+				/ total : centerAngle;
+		RadialSectorResolver.divideArc(startAngle, 360, weights, wedgeQty,
+				angles);
+	}
+
+	/**
+	 * @return True if the weights of the shown items changed since the
+	 *         last layoutAngles call.
+	 */
+	protected boolean weightsChanged() {
+		for (int i = 0; i < wedgeQty; i++) {
+			if (weights[i] != shownItems[i].getWeight())
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Forces the next isLaidOut check to fail, for example after the items
+	 * list was changed in place.
+	 */
+	protected void invalidateLayout() {
+		this.layoutVersion = -1;
+	}
+
+	/**
+	 * Set the listener registered on the items of the ring. Pass null to
+	 * unregister it from all of them.
+	 * @param observer - Listener told when a shown item changes, or null.
+	 */
+	protected void setObserver(RadialMenuItem.OnItemChangedListener observer) {
+		if (this.observer == observer)
+			return;
+		if (this.observer != null)
+			unobserveItems();
+		this.observer = observer;
+		if (observer != null)
+			observeItems();
+	}
+
+	private void observeItems() {
+		for (int i = 0; i < wedgeQty; i++)
+			shownItems[i].addItemListener(observer);
+	}
+
+	private void unobserveItems() {
+		for (int i = 0; i < wedgeQty; i++)
+			shownItems[i].removeItemListener(observer);
+	}
+
+	/**
+	 * @return Item whose children are shown in the ring, or null for the
+	 *         first ring.
+	 */
+	protected RadialMenuItem getParent() {
+		return parent;
+	}
+
+	/**
+	 * @param index - Wedge index.
+	 * @return The item shown in the wedge.
+	 */
+	protected RadialMenuItem getItem(int index) {
+		return shownItems[index];
+	}
+
+	protected int getWedgeQty() {
+		return wedgeQty;
+	}
+
+	protected RadialMenuWedge getWedge(int index) {
+		return wedges[index];
+	}
+
+	protected Rect getIconRect(int index) {
+		return iconRects[index];
+	}
+
+	/**
+	 * @param wedge - Wedge of the ring.
+	 * @return The index of the wedge, or -1 if it is not part of the ring.
+	 */
+	protected int indexOf(RadialMenuWedge wedge) {
+		for (int i = 0; i < wedgeQty; i++) {
+			if (wedges[i] == wedge)
+				return i;
+		}
+		return -1;
+	}
+
+	/**
+	 * @param index - Index in the items list the ring was laid out with.
+	 * @return The item at that index, whichever wedge shows it.
+	 */
+	protected RadialMenuItem getListedItem(int index) {
+		return listedItems[index];
+	}
+
+	/**
+	 * Moves the items to other wedges. The wedges themselves are kept, only
+	 * the item each of them shows changes.
+	 * @param positions - Wedge index of every item, in list order.
+	 * @return True if any item moved.
+	 */
+	protected boolean reorder(int[] positions) {
+		boolean moved = false;
+		for (int k = 0; k < wedgeQty; k++) {
+			if (shownItems[positions[k]] != listedItems[k]) {
+				shownItems[positions[k]] = listedItems[k];
+				moved = true;
+			}
+		}
+		if (moved) {
+			for (int i = 0; i < wedgeQty; i++)
+				updateBadge(i);
+		}
+		return moved;
+	}
+
+	/**
+	 * @return Usage key of the item whose children are shown, 0 for the
+	 *         first ring.
+	 */
+	protected long getUsageKey() {
+		return usageKey;
+	}
+
+	protected void setUsageKey(long usageKey) {
+		this.usageKey = usageKey;
+	}
+
+	/**
+	 * @param item - Menu item.
+	 * @return The index of the wedge showing the item, or -1.
+	 */
+	protected int indexOf(RadialMenuItem item) {
+		for (int i = 0; i < wedgeQty; i++) {
+			if (shownItems[i] == item)
+				return i;
+		}
+		return -1;
+	}
+
+	/**
+	 * Reads the badge count of an item again.
+	 * @param index - Wedge index.
+	 * @return True if the count changed since the badge was last updated.
+	 */
+	protected boolean updateBadge(int index) {
+		int count = shownItems[index].getBadgeCount();
+		if (count == badgeCounts[index] && (count == 0) == (badgeTexts[index] == null))
+			return false;
+		badgeCounts[index] = count;
+		if (count == 0)
+			badgeTexts[index] = null;
+		else if (count > MAX_BADGE_COUNT)
+			badgeTexts[index] = MAX_BADGE_COUNT + "+";
+		else
+			badgeTexts[index] = String.valueOf(count);
+		return true;
+	}
+
+	/**
+	 * @param index - Wedge index.
+	 * @return The text of the badge shown on the wedge, or null.
+	 */
+	protected String getBadgeText(int index) {
+		return badgeTexts[index];
+	}
+
+	protected int getInnerRadius() {
+		return innerRadius;
+	}
+
+	protected int getOuterRadius() {
+		return outerRadius;
+	}
+
+	/**
+	 * @return Angle of every wedge boundary, wedge i lies between entries i
+	 *         and i + 1.
+	 */
+	protected float[] getAngles() {
+		return angles;
+	}
+
+	protected float getWedgeStart(int index) {
+		return angles[index];
+	}
+
+	protected float getWedgeSweep(int index) {
+		return angles[index + 1] - angles[index];
+	}
+
+	/**
+	 * @return Index of the wedge that opened the next ring, or -1.
+	 */
+	protected int getOpenedIndex() {
+		return openedIndex;
+	}
+
+	/**
+	 * @param openedIndex - Index of the wedge that opened the next ring, or
+	 *            -1 if no ring is open above this one.
+	 */
+	protected void setOpenedIndex(int openedIndex) {
+		this.openedIndex = openedIndex;
+	}
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2012
+ * Jason Valestin (valestin@gmail.com ) and Arindam Nath (strider2023@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.touchmenotapps.widget.radialmenu.menu.v1;
+
+import android.graphics.Rect;
+import android.view.View;
+import android.view.animation.AnimationUtils;
+import android.view.animation.DecelerateInterpolator;
+import android.view.animation.Interpolator;
+
+/**
+ * This class animates the opening and closing of a menu ring against the
+ * animation clock, so the animation takes the same time whatever the frame
+ * rate is. It only moves a fraction between 0 (closed) and 1 (open). Frames
+ * are driven by drawing: the view calls computeFrame from onDraw, which
+ * invalidates the ring bounds again until the animation ends, so frames
+ * follow the display refresh instead of a timer.
+ */
+public class RadialMenuRingAnimator {
+
+	public interface RingAnimationListener {
+		/**
+		 * Called once the ring finished opening or closing.
+		 * @param opened - True if the ring is now open.
+		 */
+		public void onRingAnimationEnd(boolean opened);
+	}
+
+	private final View view;
+	private RingAnimationListener listener = null;
+	private long duration = 200;
+	private Interpolator interpolator = new DecelerateInterpolator();
+
+	private boolean running = false;
+	private boolean opening = false;
+	private long startTime = 0;
+	private float startProgress = 0;
+	private float progress = 0; // linear progress, 0 = closed and 1 = open
+	private final Rect bounds = new Rect(); // area redrawn by every frame
+
+	/**
+	 * @param view - View to redraw on every animation frame.
+	 */
+	protected RadialMenuRingAnimator(View view) {
+		this.view = view;
+	}
+
+	/**
+	 * @param listener - Listener told when an animation ends.
+	 */
+	protected void setListener(RingAnimationListener listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * Set the time a full open or close animation takes.
+	 * @param duration - Time in milliseconds.
+	 */
+	protected void setDuration(long duration) {
+		this.duration = duration;
+	}
+
+	/**
+	 * Set the easing of the animation.
+	 * @param interpolator - Interpolator applied to the progress.
+	 */
+	protected void setInterpolator(Interpolator interpolator) {
+		this.interpolator = interpolator;
+	}
+
+	/**
+	 * Starts opening the ring from where it currently is.
+	 */
+	protected void open() {
+		start(true);
+	}
+
+	/**
+	 * Starts closing the ring from where it currently is.
+	 */
+	protected void close() {
+		start(false);
+	}
+
+	/**
+	 * Stops the animation and jumps to the open or closed state.
+	 * @param opened - True to leave the ring open.
+	 */
+	protected void jumpTo(boolean opened) {
+		running = false;
+		progress = opened ? 1 : 0;
+	}
+
+	private void start(boolean open) {
+		opening = open;
+		startProgress = progress;
+		startTime = AnimationUtils.currentAnimationTimeMillis();
+		running = true;
+		// The first frame redraws everything, the ring may have just changed
+		view.invalidate();
+	}
+
+	/**
+	 * Set the area the animated ring covers. Only this area is redrawn by
+	 * the frames after the first one.
+	 * @param bounds - Bounds in view coordinates, or an empty rect for the whole view.
+	 */
+	protected void setBounds(Rect bounds) {
+		this.bounds.set(bounds);
+	}
+
+	/**
+	 * @return True while the ring is opening or closing.
+	 */
+	protected boolean isRunning() {
+		return running;
+	}
+
+	/**
+	 * @return The eased open fraction, 0 when closed and 1 when open.
+	 */
+	protected float getFraction() {
+		if (progress <= 0 || progress >= 1)
+			return progress;
+		return interpolator.getInterpolation(progress);
+	}
+
+	/**
+	 * Moves the animation to the current time. Called by the view from
+	 * onDraw, before reading the fraction.
+	 */
+	protected void computeFrame() {
+		if (!running)
+			return;
+		long elapsed = AnimationUtils.currentAnimationTimeMillis() - startTime;
+		float step = duration > 0 ? (float) elapsed / duration : 1;
+		boolean finished;
+		if (opening) {
+			progress = Math.min(1, startProgress + step);
+			finished = progress >= 1;
+		} else {
+			progress = Math.max(0, startProgress - step);
+			finished = progress <= 0;
+		}
+		if (finished) {
+			running = false;
+			if (listener != null)
+				listener.onRingAnimationEnd(opening);
+		} else if (bounds.isEmpty()) {
+			view.invalidate();
+		} else {
+			// Asks for the next frame, drawn after the display refresh
+			view.invalidate(bounds);
+		}
+	}
+}
@@ -0,0 +1,345 @@
+/*
+ * Copyright (C) 2012
+ * Jason Valestin (valestin@gmail.com ) and Arindam Nath (strider2023@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.touchmenotapps.widget.radialmenu.menu.v1;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * This class indexes the names and labels of every menu item across all the
+ * levels of a menu, so items can be found by typing the start of any word of
+ * their label or name, or looked up by their name path.
+ * 
+ * Words are stored in a prefix trie. Every trie node keeps the items whose
+ * words pass through it, sorted by rank, so a search walks one trie path and
+ * reads the first results. Items are indexed as they are added; removed
+ * items are only skipped until the index is built again.
+ * 
+ * A name path joins the names of the items from the first ring down with
+ * PATH_SEPARATOR, for example "Edit/Copy".
+ */
+public class RadialMenuSearchIndex {
+
+	public static final char PATH_SEPARATOR = '/';
+
+	private static final int NAME_WORD_PENALTY = 8; // Name words rank after label words
+
+	private final TrieNode root = new TrieNode();
+	private final Map<String, RadialMenuItem> paths = new HashMap<String, RadialMenuItem>();
+	private final Map<RadialMenuItem, Integer> entryIds = new IdentityHashMap<RadialMenuItem, Integer>();
+	private final List<Entry> entries = new ArrayList<Entry>();
+	private int removedCount = 0;
+
+	/**
+	 * Indexes an item and its loaded child items.
+	 * @param item - Item to index.
+	 * @param parent - Indexed parent item, or null for an item of the first ring.
+	 */
+	public void add(RadialMenuItem item, RadialMenuItem parent) {
+		String parentPath = null;
+		int depth = 0;
+		if (parent != null) {
+			Integer parentId = entryIds.get(parent);
+			if (parentId == null)
+				return;
+			Entry parentEntry = entries.get(parentId);
+			parentPath = parentEntry.path;
+			depth = parentEntry.depth + 1;
+		}
+		addEntry(item, parentPath, depth);
+	}
+
+	private void addEntry(RadialMenuItem item, String parentPath, int depth) {
+		if (entryIds.containsKey(item))
+			return;
+		String path = parentPath == null ? item.getName() : parentPath
+				+ PATH_SEPARATOR + item.getName();
+		int id = entries.size();
+		entries.add(new Entry(item, path, depth));
+		entryIds.put(item, id);
+		if (!paths.containsKey(path))
+			paths.put(path, item);
+
+		int wordIndex = indexWords(item.getLabel(), id, depth, 0);
+		indexWords(item.getName(), id, depth, Math.max(wordIndex,
+				NAME_WORD_PENALTY));
+
+		// Only children that are already loaded, the index never loads them
+		if (item.areChildrenLoaded()) {
+			List<RadialMenuItem> children = item.getChildren();
+			if (children != null) {
+				for (int i = 0; i < children.size(); i++)
+					addEntry(children.get(i), path, depth + 1);
+			}
+		}
+	}
+
+	/**
+	 * Splits a text into words and adds every word to the trie.
+	 * @return The index the next word of the item gets.
+	 */
+	private int indexWords(String text, int id, int depth, int wordIndex) {
+		if (text == null)
+			return wordIndex;
+		String lower = text.toLowerCase(Locale.getDefault());
+		int length = lower.length();
+		int start = -1;
+		for (int i = 0; i <= length; i++) {
+			boolean letter = i < length
+					&& Character.isLetterOrDigit(lower.charAt(i));
+			if (letter && start == -1) {
+				start = i;
+			} else if (!letter && start != -1) {
+				// Earlier words, shallower items and shorter texts rank first
+				int score = (Math.min(wordIndex, 255) << 20)
+						| (Math.min(depth, 15) << 16)
+						| Math.min(length, 0xFFFF);
+				TrieNode node = root;
+				for (int j = start; j < i; j++) {
+					node = node.getOrAddChild(lower.charAt(j));
+					node.addEntry(id, score);
+				}
+				wordIndex++;
+				start = -1;
+			}
+		}
+		return wordIndex;
+	}
+
+	/**
+	 * Removes an item and its child items from the results.
+	 * @param item - Item to remove.
+	 */
+	public void remove(RadialMenuItem item) {
+		Integer id = entryIds.remove(item);
+		if (id == null)
+			return;
+		Entry entry = entries.get(id);
+		String prefix = entry.path + PATH_SEPARATOR;
+		markRemoved(entry);
+		for (int i = 0; i < entries.size(); i++) {
+			Entry child = entries.get(i);
+			if (!child.removed && child.path.startsWith(prefix)) {
+				entryIds.remove(child.item);
+				markRemoved(child);
+			}
+		}
+	}
+
+	private void markRemoved(Entry entry) {
+		entry.removed = true;
+		removedCount++;
+		if (paths.get(entry.path) == entry.item)
+			paths.remove(entry.path);
+	}
+
+	/**
+	 * Indexes an item again after its label or child items changed.
+	 * @param item - Indexed item.
+	 */
+	public void update(RadialMenuItem item) {
+		Integer id = entryIds.get(item);
+		if (id == null)
+			return;
+		Entry entry = entries.get(id);
+		int split = entry.path.lastIndexOf(PATH_SEPARATOR);
+		String parentPath = entry.depth > 0 ? entry.path.substring(0, split)
+				: null;
+		remove(item);
+		addEntry(item, parentPath, entry.depth);
+	}
+
+	/**
+	 * @return True if enough items were removed that building the index again
+	 *         is worth it.
+	 */
+	public boolean needsRebuild() {
+		return removedCount > 64 && removedCount > entries.size() / 2;
+	}
+
+	/**
+	 * Removes every item from the index.
+	 */
+	public void clear() {
+		root.clear();
+		paths.clear();
+		entryIds.clear();
+		entries.clear();
+		removedCount = 0;
+	}
+
+	/**
+	 * @param path - Name path of the item.
+	 * @return The item, or null if no indexed item has the path.
+	 */
+	public RadialMenuItem findItemByPath(String path) {
+		return paths.get(path);
+	}
+
+	/**
+	 * Finds the best ranked items with a word starting with the query. Words
+	 * of the query after the first one must also start a word of the item.
+	 * @param query - Typed text.
+	 * @param maxResults - Maximum number of items returned.
+	 * @return The matching items, best first.
+	 */
+	public List<RadialMenuItem> search(String query, int maxResults) {
+		List<RadialMenuItem> results = new ArrayList<RadialMenuItem>(maxResults);
+		String lower = query.toLowerCase(Locale.getDefault()).trim();
+		String[] words = lower.split("[^\\p{L}\\p{Nd}]+");
+		if (words.length == 0 || words[0].length() == 0)
+			return results;
+
+		TrieNode node = find(words[0]);
+		if (node == null)
+			return results;
+		for (int i = 0; i < node.size && results.size() < maxResults; i++) {
+			Entry entry = entries.get(node.ids[i]);
+			if (entry.removed || results.contains(entry.item))
+				continue;
+			if (matchesOtherWords(node.ids[i], words))
+				results.add(entry.item);
+		}
+		return results;
+	}
+
+	private boolean matchesOtherWords(int id, String[] words) {
+		for (int w = 1; w < words.length; w++) {
+			TrieNode node = find(words[w]);
+			if (node == null || !node.contains(id))
+				return false;
+		}
+		return true;
+	}
+
+	private TrieNode find(String word) {
+		TrieNode node = root;
+		for (int i = 0; i < word.length() && node != null; i++)
+			node = node.getChild(word.charAt(i));
+		return node;
+	}
+
+	/**
+	 * This class holds one indexed item.
+	 */
+	private static class Entry {
+		private final RadialMenuItem item;
+		private final String path;
+		private final int depth;
+		private boolean removed = false;
+
+		private Entry(RadialMenuItem item, String path, int depth) {
+			this.item = item;
+			this.path = path;
+			this.depth = depth;
+		}
+	}
+
+	/**
+	 * This class is a trie node. Children are kept sorted by character and
+	 * entries sorted by score, both in plain arrays.
+	 */
+	private static class TrieNode {
+		private char[] keys = new char[0];
+		private TrieNode[] children = new TrieNode[0];
+		private int[] ids = new int[0];
+		private int[] scores = new int[0];
+		private int size = 0;
+
+		private TrieNode getChild(char key) {
+			int index = binarySearch(key);
+			return index >= 0 ? children[index] : null;
+		}
+
+		private TrieNode getOrAddChild(char key) {
+			int index = binarySearch(key);
+			if (index >= 0)
+				return children[index];
+			index = -index - 1;
+			char[] grownKeys = new char[keys.length + 1];
+			TrieNode[] grownChildren = new TrieNode[children.length + 1];
+			System.arraycopy(keys, 0, grownKeys, 0, index);
+			System.arraycopy(children, 0, grownChildren, 0, index);
+			System.arraycopy(keys, index, grownKeys, index + 1, keys.length
+					- index);
+			System.arraycopy(children, index, grownChildren, index + 1,
+					children.length - index);
+			grownKeys[index] = key;
+			grownChildren[index] = new TrieNode();
+			keys = grownKeys;
+			children = grownChildren;
+			return grownChildren[index];
+		}
+
+		private int binarySearch(char key) {
+			int low = 0;
+			int high = keys.length - 1;
+			while (low <= high) {
+				int mid = (low + high) >>> 1;
+				if (keys[mid] < key)
+					low = mid + 1;
+				else if (keys[mid] > key)
+					high = mid - 1;
+				else
+					return mid;
+			}
+			return -(low + 1);
+		}
+
+		private void addEntry(int id, int score) {
+			if (size == ids.length) {
+				int capacity = Math.max(4, size * 2);
+				int[] grownIds = new int[capacity];
+				int[] grownScores = new int[capacity];
+				System.arraycopy(ids, 0, grownIds, 0, size);
+				System.arraycopy(scores, 0, grownScores, 0, size);
+				ids = grownIds;
+				scores = grownScores;
+			}
+			// Keeps the entries sorted, equal scores stay in insertion order
+			int index = size;
+			while (index > 0 && scores[index - 1] > score)
+				index--;
+			System.arraycopy(ids, index, ids, index + 1, size - index);
+			System.arraycopy(scores, index, scores, index + 1, size - index);
+			ids[index] = id;
+			scores[index] = score;
+			size++;
+		}
+
+		private boolean contains(int id) {
+			for (int i = 0; i < size; i++) {
+				if (ids[i] == id)
+					return true;
+			}
+			return false;
+		}
+
+		private void clear() {
+			keys = new char[0];
+			children = new TrieNode[0];
+			ids = new int[0];
+			scores = new int[0];
+			size = 0;
+		}
+	}
+}
@@ -0,0 +1,542 @@
+/*
+ * Copyright (C) 2012
+ * Jason Valestin (valestin@gmail.com ) and Arindam Nath (strider2023@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.touchmenotapps.widget.radialmenu.menu.v1;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+import android.content.res.Resources;
+
+/**
+ * This class holds a large menu tree in parallel primitive arrays instead of
+ * one RadialMenuItem object per node, so a node costs a few dozen bytes and
+ * walking the tree reads from a handful of arrays.
+ * 
+ * Nodes are added with addNode and referred to by index. The widgets only see
+ * RadialMenuItem views of the nodes, which are created the first time a ring
+ * shows them. Labels given as string resources are only resolved when a view
+ * asks for them. A node can also defer its children to a ChildrenSource, so
+ * they are only added once its ring opens.
+ * <strong> Usage </strong>
+ * 
+ * RadialMenuTree tree = new RadialMenuTree(getResources(), 1000);
+ * int edit = tree.addNode(RadialMenuTree.NO_NODE, R.string.edit, R.drawable.edit, 0);
+ * tree.addNode(edit, R.string.copy, R.drawable.copy, 0);
+ * tree.setOnNodeActivatedListener(listener);
+ * pieMenu.addMenuEntry(tree.getRootItems());
+ */
+public class RadialMenuTree {
+
+	public static final int NO_NODE = -1;
+
+	/** The node is greyed out and can't be pressed. */
+	public static final int FLAG_DISABLED = 1;
+
+	// The children of the node are added by the children source when needed
+	private static final int FLAG_CHILDREN_DEFERRED = 1 << 31;
+
+	public interface OnNodeActivatedListener {
+		/**
+		 * Called when a node is pressed in the menu.
+		 * @param tree - Tree holding the node.
+		 * @param node - Index of the node.
+		 */
+		public void onNodeActivated(RadialMenuTree tree, int node);
+	}
+
+	public interface ChildrenSource {
+		/**
+		 * Called the first time the children of a deferred node are needed.
+		 * Must add them with addNode before returning.
+		 * @param tree - Tree holding the node.
+		 * @param node - Index of the node.
+		 */
+		public void addChildren(RadialMenuTree tree, int node);
+	}
+
+	private final Resources resources;
+	private OnNodeActivatedListener listener = null;
+	private ChildrenSource childrenSource = null;
+	private boolean addingChildren = false;
+	private int nodeCount = 0;
+
+	private int[] parent;
+	private int[] firstChild;
+	private int[] lastChild;
+	private int[] nextSibling;
+	private int[] childCount;
+	private int[] iconId;
+	private int[] labelRes;
+	private int[] flags;
+	private String[] labels; // resolved labels, filled lazily
+	private String[] names = null; // only allocated once a name is set
+	private Node[] views; // item views, created lazily
+	private List<RadialMenuItem> rootItems = null;
+
+	/**
+	 * @param resources - Resources the label resources are resolved from.
+	 * @param capacity - Expected number of nodes.
+	 */
+	public RadialMenuTree(Resources resources, int capacity) {
+		this.resources = resources;
+		allocate(Math.max(capacity, 4));
+	}
+
+	private void allocate(int capacity) {
+		parent = grow(parent, capacity);
+		firstChild = grow(firstChild, capacity);
+		lastChild = grow(lastChild, capacity);
+		nextSibling = grow(nextSibling, capacity);
+		childCount = grow(childCount, capacity);
+		iconId = grow(iconId, capacity);
+		labelRes = grow(labelRes, capacity);
+		flags = grow(flags, capacity);
+		String[] grownLabels = new String[capacity];
+		Node[] grownViews = new Node[capacity];
+		if (labels != null) {
+			System.arraycopy(labels, 0, grownLabels, 0, nodeCount);
+			System.arraycopy(views, 0, grownViews, 0, nodeCount);
+		}
+		labels = grownLabels;
+		views = grownViews;
+		if (names != null) {
+			String[] grownNames = new String[capacity];
+			System.arraycopy(names, 0, grownNames, 0, nodeCount);
+			names = grownNames;
+		}
+	}
+
+	private int[] grow(int[] array, int capacity) {
+		int[] grown = new int[capacity];
+		if (array != null)
+			System.arraycopy(array, 0, grown, 0, nodeCount);
+		return grown;
+	}
+
+	/**
+	 * Adds a node whose label is a string resource.
+	 * @param parentNode - Index of the parent node, or NO_NODE for a root node.
+	 * @param labelResId - Label string resource ID, or 0 for no label.
+	 * @param iconResId - Icon resource ID, or 0 for no icon.
+	 * @param nodeFlags - Node flags, such as FLAG_DISABLED.
+	 * @return The index of the new node.
+	 */
+	public int addNode(int parentNode, int labelResId, int iconResId,
+			int nodeFlags) {
+		int node = appendNode(parentNode, iconResId, nodeFlags);
+		labelRes[node] = labelResId;
+		return node;
+	}
+
+	/**
+	 * Adds a node whose label is a string.
+	 * @param parentNode - Index of the parent node, or NO_NODE for a root node.
+	 * @param label - Label text, or null for no label.
+	 * @param iconResId - Icon resource ID, or 0 for no icon.
+	 * @param nodeFlags - Node flags, such as FLAG_DISABLED.
+	 * @return The index of the new node.
+	 */
+	public int addNode(int parentNode, String label, int iconResId,
+			int nodeFlags) {
+		int node = appendNode(parentNode, iconResId, nodeFlags);
+		labels[node] = label;
+		return node;
+	}
+
+	private int appendNode(int parentNode, int iconResId, int nodeFlags) {
+		if (parentNode < NO_NODE || parentNode >= nodeCount)
+			throw new IndexOutOfBoundsException("No node " + parentNode);
+		if (nodeCount == parent.length)
+			allocate(nodeCount + (nodeCount >> 1));
+		int node = nodeCount++;
+		parent[node] = parentNode;
+		firstChild[node] = NO_NODE;
+		lastChild[node] = NO_NODE;
+		nextSibling[node] = NO_NODE;
+		childCount[node] = 0;
+		iconId[node] = iconResId;
+		flags[node] = nodeFlags;
+		if (parentNode == NO_NODE) {
+			rootItems = null;
+		} else {
+			if (firstChild[parentNode] == NO_NODE)
+				firstChild[parentNode] = node;
+			else
+				nextSibling[lastChild[parentNode]] = node;
+			lastChild[parentNode] = node;
+			childCount[parentNode]++;
+			// The child list of a shown parent is built again
+			if (views[parentNode] != null) {
+				views[parentNode].invalidateChildren();
+				if (!addingChildren)
+					views[parentNode].notifyItemChanged(RadialMenuItem.CHANGED_CHILDREN);
+			}
+		}
+		return node;
+	}
+
+	/**
+	 * Marks a node whose children are only added by the children source the
+	 * first time they are needed, for example when its ring opens.
+	 * @param node - Index of the node.
+	 */
+	public void deferChildren(int node) {
+		flags[node] |= FLAG_CHILDREN_DEFERRED;
+	}
+
+	/**
+	 * @param source - Source adding the children of deferred nodes.
+	 */
+	public void setChildrenSource(ChildrenSource source) {
+		this.childrenSource = source;
+	}
+
+	private void addDeferredChildren(int node) {
+		if ((flags[node] & FLAG_CHILDREN_DEFERRED) == 0)
+			return;
+		flags[node] &= ~FLAG_CHILDREN_DEFERRED;
+		if (childrenSource == null)
+			return;
+		addingChildren = true;
+		try {
+			childrenSource.addChildren(this, node);
+		} finally {
+			addingChildren = false;
+		}
+	}
+
+	/**
+	 * @param listener - Listener told when a node is pressed.
+	 */
+	public void setOnNodeActivatedListener(OnNodeActivatedListener listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * @return Number of nodes in the tree.
+	 */
+	public int getNodeCount() {
+		return nodeCount;
+	}
+
+	public int getParent(int node) {
+		return parent[node];
+	}
+
+	public int getFirstChild(int node) {
+		addDeferredChildren(node);
+		return firstChild[node];
+	}
+
+	public int getNextSibling(int node) {
+		return nextSibling[node];
+	}
+
+	public int getChildCount(int node) {
+		addDeferredChildren(node);
+		return childCount[node];
+	}
+
+	public int getIcon(int node) {
+		return iconId[node];
+	}
+
+	public int getFlags(int node) {
+		return flags[node] & ~FLAG_CHILDREN_DEFERRED;
+	}
+
+	/**
+	 * Set the flags of a node.
+	 * @param node - Index of the node.
+	 * @param nodeFlags - Node flags, such as FLAG_DISABLED.
+	 */
+	public void setFlags(int node, int nodeFlags) {
+		nodeFlags = (nodeFlags & ~FLAG_CHILDREN_DEFERRED)
+				| (flags[node] & FLAG_CHILDREN_DEFERRED);
+		int changed = flags[node] ^ nodeFlags;
+		flags[node] = nodeFlags;
+		if ((changed & FLAG_DISABLED) != 0 && views[node] != null)
+			views[node].notifyItemChanged(RadialMenuItem.CHANGED_ENABLED);
+	}
+
+	/**
+	 * Set the name of a node, used to tell items apart when searching menus
+	 * or counting their use.
+	 * @param node - Index of the node.
+	 * @param name - Name of the node.
+	 */
+	public void setName(int node, String name) {
+		if (names == null)
+			names = new String[parent.length];
+		names[node] = name;
+	}
+
+	/**
+	 * @param node - Index of the node.
+	 * @return The name of the node, or "Node " and its index if it has none.
+	 */
+	public String getName(int node) {
+		if (names != null && names[node] != null)
+			return names[node];
+		return "Node " + node;
+	}
+
+	/**
+	 * Get the label of a node, resolving its string resource the first time.
+	 * @param node - Index of the node.
+	 * @return The label, or null if the node has none.
+	 */
+	public String getLabel(int node) {
+		String label = labels[node];
+		if (label == null && labelRes[node] != 0) {
+			label = resources.getString(labelRes[node]);
+			labels[node] = label;
+		}
+		return label;
+	}
+
+	/**
+	 * Set the label of a node to a string.
+	 * @param node - Index of the node.
+	 * @param label - Label text, or null for no label.
+	 */
+	public void setLabel(int node, String label) {
+		labelRes[node] = 0;
+		labels[node] = label;
+		if (views[node] != null)
+			views[node].notifyItemChanged(RadialMenuItem.CHANGED_LABEL);
+	}
+
+	/**
+	 * Set the label of a node to a string resource.
+	 * @param node - Index of the node.
+	 * @param labelResId - Label string resource ID, or 0 for no label.
+	 */
+	public void setLabel(int node, int labelResId) {
+		labelRes[node] = labelResId;
+		labels[node] = null;
+		if (views[node] != null)
+			views[node].notifyItemChanged(RadialMenuItem.CHANGED_LABEL);
+	}
+
+	/**
+	 * Set the icon of a node.
+	 * @param node - Index of the node.
+	 * @param iconResId - Icon resource ID, or 0 for no icon.
+	 */
+	public void setIcon(int node, int iconResId) {
+		if (iconId[node] == iconResId)
+			return;
+		iconId[node] = iconResId;
+		if (views[node] != null)
+			views[node].notifyItemChanged(RadialMenuItem.CHANGED_ICON);
+	}
+
+	/**
+	 * Drops the resolved labels, for example after the locale changed.
+	 */
+	public void clearResolvedLabels() {
+		for (int node = 0; node < nodeCount; node++) {
+			if (labelRes[node] != 0)
+				labels[node] = null;
+		}
+	}
+
+	/**
+	 * Get the menu item view of a node, creating it the first time.
+	 * @param node - Index of the node.
+	 * @return The menu item view.
+	 */
+	public RadialMenuItem getItem(int node) {
+		Node view = views[node];
+		if (view == null) {
+			view = new Node(this, node);
+			views[node] = view;
+		}
+		return view;
+	}
+
+	/**
+	 * Drops the menu item views that no widget is observing, which are
+	 * created again when shown. The views of the rings an attached widget
+	 * shows or keeps cached are kept, so it is still told when their nodes
+	 * change. A widget that is not attached observes nothing and may still
+	 * hold dropped views, which would then miss later changes: remove its
+	 * entries and add getRootItems() again after calling this.
+	 */
+	public void releaseItems() {
+		for (int node = 0; node < nodeCount; node++) {
+			if (views[node] != null && !views[node].hasItemListeners())
+				views[node] = null;
+		}
+		rootItems = null;
+	}
+
+	/**
+	 * @return The menu item views of the root nodes, to add to the widget.
+	 */
+	public List<RadialMenuItem> getRootItems() {
+		if (rootItems == null) {
+			int roots = 0;
+			for (int node = 0; node < nodeCount; node++) {
+				if (parent[node] == NO_NODE)
+					roots++;
+			}
+			int[] rootNodes = new int[roots];
+			roots = 0;
+			for (int node = 0; node < nodeCount; node++) {
+				if (parent[node] == NO_NODE)
+					rootNodes[roots++] = node;
+			}
+			rootItems = new NodeList(this, rootNodes);
+		}
+		return rootItems;
+	}
+
+	/**
+	 * This class is the menu item view of a tree node. It only holds the tree
+	 * and the node index, everything else is read from the tree. The setters
+	 * write to the tree, children can only be added with addNode.
+	 */
+	protected static class Node extends RadialMenuItem {
+		private final RadialMenuTree tree;
+		private final int node;
+		private List<RadialMenuItem> children = null;
+
+		private Node(RadialMenuTree tree, int node) {
+			super(null, null);
+			this.tree = tree;
+			this.node = node;
+		}
+
+		/**
+		 * @return Index of the node in the tree.
+		 */
+		public int getNode() {
+			return node;
+		}
+
+		@Override
+		public String getName() {
+			return tree.getName(node);
+		}
+
+		@Override
+		public String getLabel() {
+			return tree.getLabel(node);
+		}
+
+		@Override
+		public int getIcon() {
+			return tree.iconId[node];
+		}
+
+		@Override
+		public boolean isEnabled() {
+			return (tree.flags[node] & FLAG_DISABLED) == 0;
+		}
+
+		@Override
+		public void setDisplayName(String displayName) {
+			tree.setLabel(node, displayName);
+		}
+
+		@Override
+		public void setDisplayIcon(int displayIcon) {
+			tree.setIcon(node, displayIcon);
+		}
+
+		@Override
+		public void setEnabled(boolean enabled) {
+			int nodeFlags = tree.getFlags(node);
+			tree.setFlags(node, enabled ? nodeFlags & ~FLAG_DISABLED
+					: nodeFlags | FLAG_DISABLED);
+		}
+
+		@Override
+		public void setMenuChildren(List<RadialMenuItem> childItems) {
+			throw new UnsupportedOperationException(
+					"Children of a tree node are added with RadialMenuTree.addNode");
+		}
+
+		@Override
+		public void setChildrenProvider(RadialMenuChildrenProvider provider,
+				long expiryMillis) {
+			throw new UnsupportedOperationException(
+					"Children of a tree node are deferred with RadialMenuTree.deferChildren");
+		}
+
+		@Override
+		public void invalidateChildren() {
+			children = null;
+		}
+
+		@Override
+		public boolean hasChildren() {
+			return tree.childCount[node] > 0
+					|| (tree.flags[node] & FLAG_CHILDREN_DEFERRED) != 0;
+		}
+
+		@Override
+		public List<RadialMenuItem> getChildren() {
+			tree.addDeferredChildren(node);
+			if (tree.childCount[node] == 0)
+				return null;
+			if (children == null) {
+				int[] childNodes = new int[tree.childCount[node]];
+				int i = 0;
+				for (int child = tree.firstChild[node]; child != NO_NODE; child = tree.nextSibling[child])
+					childNodes[i++] = child;
+				children = new NodeList(tree, childNodes);
+			}
+			return children;
+		}
+
+		@Override
+		public void menuActiviated() {
+			if (tree.listener != null)
+				tree.listener.onNodeActivated(tree, node);
+		}
+	}
+
+	/**
+	 * This class lists the item views of a set of nodes, creating each view
+	 * when it is first read.
+	 */
+	private static class NodeList extends AbstractList<RadialMenuItem>
+			implements RandomAccess {
+		private final RadialMenuTree tree;
+		private final int[] nodes;
+
+		private NodeList(RadialMenuTree tree, int[] nodes) {
+			this.tree = tree;
+			this.nodes = nodes;
+		}
+
+		@Override
+		public RadialMenuItem get(int index) {
+			return tree.getItem(nodes[index]);
+		}
+
+		@Override
+		public int size() {
+			return nodes.length;
+		}
+	}
+}
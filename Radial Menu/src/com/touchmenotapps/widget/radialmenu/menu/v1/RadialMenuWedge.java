@@ -31,6 +31,9 @@ public class RadialMenuWedge extends Path {
 	private int InnerSize, OuterSize;
 	private float StartArc;
 	private float ArcWidth;
+	private final RectF rect = new RectF();
+	private final RectF rect2 = new RectF();
+	private final RectF bounds = new RectF();
 
 	/**
 	 * 
@@ -44,6 +47,21 @@ public class RadialMenuWedge extends Path {
 	protected RadialMenuWedge(int x, int y, int InnerSize, int OuterSize,
 			float StartArc, float ArcWidth) {
 		super();
+		this.set(x, y, InnerSize, OuterSize, StartArc, ArcWidth);
+	}
+
+	/**
+	 * Rebuilds the wedge in place so the path and its bounds can be reused
+	 * instead of allocating a new wedge.
+	 * @param x
+	 * @param y
+	 * @param InnerSize
+	 * @param OuterSize
+	 * @param StartArc
+	 * @param ArcWidth
+	 */
+	protected void set(int x, int y, int InnerSize, int OuterSize,
+			float StartArc, float ArcWidth) {
 		if (StartArc >= 360) {
 			StartArc = StartArc - 360;
 		}
@@ -60,8 +78,6 @@ public class RadialMenuWedge extends Path {
 	 * 
 	 */
 	protected void buildPath() {
-		final RectF rect = new RectF();
-		final RectF rect2 = new RectF();
 		// Rectangles values
 		rect.set(this.x - this.InnerSize, this.y - this.InnerSize, this.x
 				+ this.InnerSize, this.y + this.InnerSize);
@@ -72,5 +88,13 @@ public class RadialMenuWedge extends Path {
 		this.arcTo(rect2, StartArc, ArcWidth);
 		this.arcTo(rect, StartArc + ArcWidth, -ArcWidth);
 		this.close();
+		this.computeBounds(bounds, true);
+	}
+
+	/**
+	 * @return The bounds of the wedge path, updated every time it is built.
+	 */
+	protected RectF getBounds() {
+		return bounds;
 	}
 }
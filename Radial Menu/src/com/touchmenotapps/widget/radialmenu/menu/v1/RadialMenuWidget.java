@@ -18,16 +18,29 @@
 package com.touchmenotapps.widget.radialmenu.menu.v1;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
 
 import android.content.Context;
 import android.graphics.*;
 import android.graphics.drawable.Drawable;
 import android.view.*;
+import android.view.animation.Interpolator;
 import android.widget.PopupWindow;
 
+import com.touchmenotapps.widget.radialmenu.RadialSectorResolver;
+import com.touchmenotapps.widget.radialmenu.RadialStrokeRecognizer;
+import com.touchmenotapps.widget.radialmenu.RadialUsageStore;
+
 /**
  * This is the core class that handles the widget display and user interaction.
+ * The menu entries can be changed from any thread. Every change publishes a
+ * new immutable list of entries, which the UI thread picks up on the next
+ * frame or touch, so drawing and touch handling never wait on a lock.
  * 
  * @author Jason Valestin (valestin@gmail.com )
  * @author Arindam Nath (strider2023@gmail.com)
@@ -35,8 +48,13 @@ import android.widget.PopupWindow;
 public class RadialMenuWidget extends View {
 
 	private RadialMenuHelper helper;
+	private RadialMenuIconCache iconCache = RadialMenuIconCache.getInstance();
 
-	private List<RadialMenuItem> menuEntries = new ArrayList<RadialMenuItem>();
+	// Latest entries, replaced as a whole by every change on any thread
+	private final AtomicReference<List<RadialMenuItem>> publishedEntries = new AtomicReference<List<RadialMenuItem>>(
+			Collections.<RadialMenuItem> emptyList());
+	// Entries the menu is laid out with, only used on the UI thread
+	private List<RadialMenuItem> menuEntries = publishedEntries.get();
 	private RadialMenuItem centerCircle = null;
 
 	private float screen_density = getContext().getResources()
@@ -69,6 +87,10 @@ public class RadialMenuWidget extends View {
 	private int textAlpha = 255; // transparency of fill when something is
 									// selected
 
+	private int badgeColor = Color.rgb(200, 40, 40); // color of badges
+	private int badgeTextColor = Color.rgb(255, 255, 255); // color of badge
+															// counts
+
 	private int headerTextColor = Color.rgb(255, 255, 255); // color of header
 															// text
 	private int headerTextAlpha = 255; // transparency of header text
@@ -77,22 +99,93 @@ public class RadialMenuWidget extends View {
 	private int headerBackgroundAlpha = 180; // transparency of header
 												// background
 
-	private int wedgeQty = 1; // Number of wedges
-	private RadialMenuWedge[] Wedges = new RadialMenuWedge[wedgeQty];
+	// Ring of the menu entries
+	private RadialMenuRing rootRing = new RadialMenuRing(null);
+	// Rings shown, from the center out
+	private List<RadialMenuRing> ringStack = new ArrayList<RadialMenuRing>();
 	private RadialMenuWedge selected = null; // Keeps track of which wedge is
 												// selected
-	private RadialMenuWedge enabled = null; // Keeps track of which wedge is
-											// enabled for outer ring
-	private Rect[] iconRect = new Rect[wedgeQty];
-
-	private int wedgeQty2 = 1; // Number of wedges
-	private RadialMenuWedge[] Wedges2 = new RadialMenuWedge[wedgeQty2];
-	private RadialMenuWedge selected2 = null; // Keeps track of which wedge is
-												// selected
-	private Rect[] iconRect2 = new Rect[wedgeQty2];
-	private RadialMenuInterface wedge2Data = null; // Keeps track off which menuItem
-												// data is being used for the
-												// outer ring
+	private int selectedLevel = -1; // Ring level of the selected wedge
+	private boolean ringClosing = false; // Identifies the outermost ring is
+											// animating closed
+	private int ringStackVersion = 0; // Bumped when a ring opens or closes
+	private int ringLayoutVersion = 0; // Bumped when the ring geometry changes
+	private static final int MAX_CACHED_RINGS = 8; // Rings kept laid out
+	private RadialMenuItem loadingItem = new RadialMenuItem("Loading",
+			"Loading..."); // Shown while children load
+	private List<RadialMenuItem> loadingItems = Collections
+			.singletonList(loadingItem);
+	private RadialMenuItem.OnChildrenLoadedListener childrenListener = new RadialMenuItem.OnChildrenLoadedListener() {
+		@Override
+		public void onChildrenLoaded(RadialMenuItem item) {
+			// Swaps the placeholder of every ring still showing the item
+			for (int level = ringStack.size() - 1; level > 0; level--) {
+				RadialMenuRing ring = ringStack.get(level);
+				if (ring.getParent() == item) {
+					if (searchIndex != null) {
+						searchIndex.update(item);
+					}
+					List<RadialMenuItem> children = item.getChildren();
+					if (children == null || children.isEmpty()) {
+						// Loading failed or found nothing, nothing to show
+						closeRingsAbove(level - 1);
+					} else {
+						layoutRing(ring, level);
+						invalidateRingLayer();
+					}
+					invalidate();
+				}
+			}
+		}
+	};
+	private RadialMenuItem.OnItemChangedListener itemListener = new RadialMenuItem.OnItemChangedListener() {
+		@Override
+		public void onItemChanged(RadialMenuItem item, int what) {
+			if (what == RadialMenuItem.CHANGED_BADGE) {
+				// May be on any thread, the badges are read on the next frame
+				scheduleBadgeUpdate();
+			} else {
+				onMenuItemChanged(item, what);
+			}
+		}
+	};
+	private volatile boolean badgeUpdatePosted = false;
+	private Runnable badgeUpdate = new Runnable() {
+		@Override
+		public void run() {
+			badgeUpdatePosted = false;
+			updateBadges();
+		}
+	};
+	private boolean attached = false; // Items are only observed while attached
+	private static final int MAX_SEARCH_RESULTS = 8; // Wedges of the search
+														// ring
+	private RadialMenuSearchIndex searchIndex = null; // Built on first use
+	private boolean searchEnabled = false; // Typed keys search the menu
+	private String searchQuery = null; // Query shown, null when not searching
+	private String savedHeader = null; // Header hidden by the query
+	private RadialMenuItem searchItem = new RadialMenuItem("Search", null);
+	private RadialMenuRing searchRing = new RadialMenuRing(searchItem);
+	private RadialMenuItem noMatchItem = new RadialMenuItem("NoMatches",
+			"No matches");
+	private RadialUsageStore usageStore = null; // Orders items by use
+	private float[] usageScores = new float[0];
+	private int[] usagePositions = new int[0];
+	private int[] usageEasiest = new int[0];
+	private Map<RadialMenuItem, RadialMenuRing> ringCache = new LinkedHashMap<RadialMenuItem, RadialMenuRing>(
+			MAX_CACHED_RINGS, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(
+				Map.Entry<RadialMenuItem, RadialMenuRing> eldest) {
+			if (size() <= MAX_CACHED_RINGS)
+				return false;
+			if (!ringStack.contains(eldest.getValue()))
+				eldest.getValue().setObserver(null);
+			return true;
+		}
+	};
 
 	private int MinSize = scalePX(35); // Radius of inner ring size
 	private int MaxSize = scalePX(90); // Radius of outer ring size
@@ -105,7 +198,8 @@ public class RadialMenuWidget extends View {
 	// private int BitmapSize = scalePX(40); //Size of Image in Wedge
 	private int cRadius = MinSize - scalePX(7); // Inner Circle Radius
 	private int textSize = scalePX(15); // TextSize
-	private int animateTextSize = textSize;
+	private int badgeTextSize = scalePX(10); // TextSize of badge counts
+	private int badgeRadius = scalePX(8); // Corner radius of badges
 
 	private int xPosition = scalePX(120); // Center X location of Radial Menu
 	private int yPosition = scalePX(120); // Center Y location of Radial Menu
@@ -114,35 +208,69 @@ public class RadialMenuWidget extends View {
 	private int ySource = 0; // Center Y of clicked location
 	private boolean showSource = false; // Display icon where at source location
 
-	private boolean inWedge = false; // Identifies touch event was in first
-										// wedge
-	private boolean inWedge2 = false; // Identifies touch event was in second
-										// wedge
 	private boolean inCircle = false; // Identifies touch event was in middle
 										// circle
 
-	private boolean Wedge2Shown = false; // Identifies 2nd wedge is drawn
-	private boolean HeaderBoxBounded = false; // Identifies if header box is
-												// drawn
-
 	private String headerString = null;
 	private int headerTextSize = textSize; // TextSize
 	private int headerBuffer = scalePX(8);
 	private Rect textRect = new Rect();
 	private RectF textBoxRect = new RectF();
+	private Paint paint = new Paint(); // Shared by every frame
+	private Rect textBounds = new Rect(); // Scratch bounds of a label line
+	private Rect labelIconRect = new Rect(); // Scratch icon bounds when a
+												// label is shown
+	private Rect centerIconRect = new Rect(); // Icon rect of the center circle
+	private RectF badgeRect = new RectF(); // Scratch bounds of a badge
+	private int labelGeneration = 0; // Bumped when label layouts must be
+										// measured again
 	private int headerTextLeft;
 	private int headerTextBottom;
 
-	private static final int ANIMATE_IN = 1;
-	private static final int ANIMATE_OUT = 2;
-
-	private int animateSections = 4;
-	private int r2VariableSize;
-	private boolean animateOuterIn = false;
-	private boolean animateOuterOut = false;
+	private static final int RING_CENTER = 0;
+	private static final int RING_INNER = 1; // Resolver ring of level 0
+	private RadialSectorResolver sectorResolver = new RadialSectorResolver();
+
+	private RadialMenuRingAnimator ringAnimator;
+	private RectF outerRingBounds = new RectF(); // Bounds of the outermost
+													// ring
+
+	private boolean layerCacheEnabled = false; // Draws resting rings from a
+												// cached bitmap
+	private Bitmap ringLayer = null;
+	private Canvas ringLayerCanvas = new Canvas();
+	private Rect ringLayerBounds = new Rect();
+	private Rect workRect = new Rect();
+	private Rect dirtyRect = new Rect(); // Region to redraw after a touch
+	private Rect dirtyWedgeRect = new Rect();
+	private static final int DIRTY_PADDING = 3; // Covers the outline stroke
+
+	private int updateDepth = 0; // Nesting of beginUpdate calls
+	private boolean wedgeLayoutPending = false; // Layout deferred by a batch
+	private boolean ringLayerValid = false;
+	private int layerStackVersion = -1; // Rings the layer was drawn with
+	private Rect layerDirtyRect = new Rect(); // Stale part of a valid layer
 	
 	private PopupWindow mWindow;
 
+	private View markingAnchor = null; // View pressed to open a marking menu
+	private long markingDelay = 0; // Hold before the marking menu shows
+	private boolean markingPending = false; // Pressed, the menu not shown yet
+	private float markingX; // Press location on the anchor
+	private float markingY;
+	private float markingScreenX; // Held location on the screen
+	private float markingScreenY;
+	private Runnable markingShow = new Runnable() {
+		@Override
+		public void run() {
+			markingPending = false;
+			// The menu opens around the finger, wherever the window sits
+			setCenterLocation((int) markingScreenX - xSource,
+					(int) markingScreenY - ySource);
+			show(markingAnchor);
+		}
+	};
+
 	/**
 	 * Radial menu widget constructor.
 	 * @param context - Application Context.
@@ -156,6 +284,18 @@ public class RadialMenuWidget extends View {
 		super(context);
 		helper = new RadialMenuHelper();
 		mWindow = helper.initPopup(context);
+		ringStack.add(rootRing);
+		noMatchItem.setEnabled(false);
+		ringAnimator = new RadialMenuRingAnimator(this);
+		ringAnimator.setListener(new RadialMenuRingAnimator.RingAnimationListener() {
+			@Override
+			public void onRingAnimationEnd(boolean opened) {
+				if (!opened && ringClosing) {
+					removeRingsAbove(ringStack.size() - 2);
+					invalidate();
+				}
+			}
+		});
 		// Gets screen specs and defaults to center of screen
 		this.xPosition = (getResources().getDisplayMetrics().widthPixels) / 2;
 		this.yPosition = (getResources().getDisplayMetrics().heightPixels) / 2;
@@ -169,125 +309,70 @@ public class RadialMenuWidget extends View {
 		int state = e.getAction();
 		int eventX = (int) e.getX();
 		int eventY = (int) e.getY();
+		RadialMenuWedge lastSelected = selected;
+		boolean lastInCircle = inCircle;
+		int lastStackVersion = ringStackVersion;
 		if (state == MotionEvent.ACTION_DOWN) {
+			// A gesture works on the entries shown when it started
+			pickUpEntries();
 			// selected = null;
-			// selected2 = null;
-			inWedge = false;
-			inWedge2 = false;
 			inCircle = false;
 
-			// Checks if a pie slice is selected in first Wedge
-			for (int i = 0; i < Wedges.length; i++) {
-				RadialMenuWedge f = Wedges[i];
-				double slice = (2 * Math.PI) / wedgeQty;
-				double start = (2 * Math.PI) * (0.75) - (slice / 2); // this is
-																		// done
-																		// so
-																		// top
-																		// slice
-																		// is
-																		// the
-																		// centered
-																		// on
-																		// top
-																		// of
-																		// the
-																		// circle
-
-				inWedge = helper
-						.pntInWedge(eventX, eventY, xPosition, yPosition,
-								MinSize, MaxSize, (i * slice) + start, slice);
-
-				if (inWedge == true) {
-					selected = f;
-					break;
-				}
-			}
-
-			// Checks if a pie slice is selected in second Wedge
-			if (Wedge2Shown == true) {
-				for (int i = 0; i < Wedges2.length; i++) {
-					RadialMenuWedge f = Wedges2[i];
-					double slice = (2 * Math.PI) / wedgeQty2;
-					double start = (2 * Math.PI) * (0.75) - (slice / 2); // this
-																			// is
-																			// done
-																			// so
-																			// top
-																			// slice
-																			// is
-																			// the
-																			// centered
-																			// on
-																			// top
-																			// of
-																			// the
-																			// circle
-
-					inWedge2 = helper.pntInWedge(eventX, eventY, xPosition,
-							yPosition, r2MinSize, r2MaxSize, (i * slice)
-									+ start, slice);
-
-					if (inWedge2 == true) {
-						selected2 = f;
-						break;
-					}
+			// Resolves the ring and pie slice under the touch in one lookup,
+			// only the rings currently shown are tested
+			sectorResolver.setRingVisible(RING_CENTER, centerCircle != null);
+			int hit = sectorResolver.resolve(eventX, eventY);
+			if (hit != RadialSectorResolver.NO_SECTOR) {
+				int ring = RadialSectorResolver.getRing(hit);
+				int sector = RadialSectorResolver.getSector(hit);
+				if (ring == RING_CENTER) {
+					inCircle = true;
+				} else if (ring - RING_INNER < ringStack.size()) {
+					selectedLevel = ring - RING_INNER;
+					selected = ringStack.get(selectedLevel).getWedge(sector);
 				}
-
-			}
-
-			// Checks if center is there and is selected
-			if(centerCircle != null) {
-				inCircle = helper.pntInCircle(eventX, eventY, xPosition, yPosition,
-						cRadius);
 			}
 
 		} else if (state == MotionEvent.ACTION_UP) {
 			// execute commands...
 			// put in stuff here to "return" the button that was pressed.
 			if (inCircle == true) {
-				if (Wedge2Shown == true) {
-					enabled = null;
-					animateOuterIn = true; // sets Wedge2Shown = false;
-				}
+				closeRingsAbove(0);
 				selected = null;
 				centerCircle.menuActiviated();
+				helper.onCloseAnimation(this, xPosition, yPosition, xSource,
+						ySource);
 
 			} else if (selected != null) {
-				for (int i = 0; i < Wedges.length; i++) {
-					RadialMenuWedge f = Wedges[i];
-					if (f == selected) {
-
-						// Checks if a inner ring is enabled if so closes the
-						// outer ring an
-						if (enabled != null) {
-							enabled = null;
-							animateOuterIn = true; // sets Wedge2Shown = false;
-							// If outer ring is not enabled, then executes event
+				int level = selectedLevel;
+				RadialMenuRing ring = level < ringStack.size() ? ringStack
+						.get(level) : null;
+				int i = ring != null ? ring.indexOf(selected) : -1;
+				selected = null;
+				if (i != -1) {
+					// Checks if a ring is open above this one, if so closes
+					// it instead of executing the event
+					if (ring.getOpenedIndex() != -1) {
+						closeRingsAbove(level);
+					} else {
+						RadialMenuItem item = ring.getItem(i);
+						// Figures out if the item opens another ring
+						if (item == loadingItem) {
+							// Waits for the children to load
+						} else if (!item.isEnabled()) {
+							// Disabled items can't be pressed
+						} else if (item.hasChildren() && !hasNoChildren(item)) {
+							recordUsage(ring, item);
+							item.menuActiviated();
+							openRing(level, i);
+						} else if (level > 0) {
+							closeRingsAbove(0);
+							recordUsage(ring, item);
+							item.menuActiviated();
 						} else {
-							menuEntries.get(i).menuActiviated();
-
-							// Figures out how many outer rings
-							if (menuEntries.get(i).getChildren() != null) {
-								determineOuterWedges(menuEntries.get(i));
-								enabled = f;
-								animateOuterOut = true; // sets Wedge2Shown =
-														// true;
-							} else {
-								Wedge2Shown = false;
-							}
+							recordUsage(ring, item);
+							item.menuActiviated();
 						}
-						selected = null;
-					}
-				}
-			} else if (selected2 != null) {
-				for (int i = 0; i < Wedges2.length; i++) {
-					RadialMenuWedge f = Wedges2[i];
-					if (f == selected2) {
-						animateOuterIn = true; // sets Wedge2Shown = false;
-						enabled = null;
-						selected = null;
-						wedge2Data.getChildren().get(i).menuActiviated();
 					}
 				}
 			} else {
@@ -295,20 +380,70 @@ public class RadialMenuWidget extends View {
 				// is selected
 				dismiss();
 				// selected = null;
-				// enabled = null;
 			}
 			// selected = null;
-			selected2 = null;
 			inCircle = false;
 		}
-		invalidate();
+
+		if (ringStackVersion != lastStackVersion || ringAnimator.isRunning()) {
+			invalidate();
+		} else {
+			// Only the wedges whose highlight changed are drawn again
+			dirtyRect.setEmpty();
+			if (selected != lastSelected) {
+				addDirtyWedge(lastSelected);
+				addDirtyWedge(selected);
+			}
+			if (inCircle != lastInCircle) {
+				dirtyRect.union(xPosition - cRadius - DIRTY_PADDING, yPosition
+						- cRadius - DIRTY_PADDING, xPosition + cRadius
+						+ DIRTY_PADDING, yPosition + cRadius + DIRTY_PADDING);
+			}
+			if (!dirtyRect.isEmpty()) {
+				invalidate(dirtyRect);
+			}
+		}
 		return true;
 	}
 
+	/**
+	 * Gives the ring animator the area the outermost ring and the header
+	 * cover at any point of the animation.
+	 */
+	private void updateRingAnimationBounds() {
+		int ringRadius = ringStack.get(ringStack.size() - 1).getOuterRadius()
+				+ textSize;
+		workRect.set(xPosition - ringRadius, yPosition - ringRadius, xPosition
+				+ ringRadius, yPosition + ringRadius);
+		if (headerString != null) {
+			// The header moves between its closed and open places
+			int closedShift = (int) getHeaderShift(0);
+			int openShift = (int) getHeaderShift(1);
+			workRect.union((int) textBoxRect.left - scalePX(3),
+					(int) textBoxRect.top - Math.max(closedShift, openShift)
+							- scalePX(3), (int) textBoxRect.right + scalePX(3),
+					(int) textBoxRect.bottom - Math.min(closedShift, openShift)
+							+ scalePX(3));
+		}
+		ringAnimator.setBounds(workRect);
+	}
+
+	private void addDirtyWedge(RadialMenuWedge wedge) {
+		if (wedge != null) {
+			wedge.getBounds().roundOut(dirtyWedgeRect);
+			dirtyWedgeRect.inset(-DIRTY_PADDING, -DIRTY_PADDING);
+			dirtyRect.union(dirtyWedgeRect);
+		}
+	}
+
 	@Override
 	protected void onDraw(Canvas c) {
+		pickUpEntries();
+		if (ringAnimator.isRunning()) {
+			updateRingAnimationBounds();
+			ringAnimator.computeFrame();
+		}
 
-		Paint paint = new Paint();
 		paint.setAntiAlias(true);
 		paint.setStrokeWidth(3);
 
@@ -325,682 +460,948 @@ public class RadialMenuWidget extends View {
 			c.drawCircle(xSource, ySource, cRadius / 10, paint);
 		}
 
-		for (int i = 0; i < Wedges.length; i++) {
-			RadialMenuWedge f = Wedges[i];
+		// The cached layer only holds resting rings, so it is skipped while
+		// the outer ring opens or closes
+		if (layerCacheEnabled == true && !ringAnimator.isRunning()
+				&& updateRingLayer()) {
+			drawRingLayer(c);
+		} else {
+			drawRings(c, ringAnimator.getFraction(), selected, inCircle);
+		}
+	}
+
+	/**
+	 * Draws the rings, the center circle and the header.
+	 * @param c - Canvas to draw on.
+	 * @param ringFraction - Open fraction of the outermost ring.
+	 * @param highlighted - Highlighted wedge, or null.
+	 * @param circlePressed - True if the center circle is pressed.
+	 */
+	private void drawRings(Canvas c, float ringFraction,
+			RadialMenuWedge highlighted, boolean circlePressed) {
+		int top = ringStack.size() - 1;
+		for (int level = 0; level <= top; level++) {
+			RadialMenuRing ring = ringStack.get(level);
+
+			// Every ring is built once at full size, opening and closing only
+			// fades and scales the outermost one around the menu center
+			int saveCount = -1;
+			if (level == top && level > 0 && ringFraction < 1) {
+				int outer = ring.getOuterRadius();
+				float startScale = Math.min(1f, (float) ringStack
+						.get(level - 1).getOuterRadius() / ring.getInnerRadius());
+				float scale = startScale + (1 - startScale) * ringFraction;
+				outerRingBounds.set(xPosition - outer, yPosition - outer,
+						xPosition + outer, yPosition + outer);
+				saveCount = c.saveLayerAlpha(outerRingBounds,
+						(int) (255 * ringFraction), Canvas.ALL_SAVE_FLAG);
+				c.scale(scale, scale, xPosition, yPosition);
+			}
+
+			for (int i = 0; i < ring.getWedgeQty(); i++) {
+				drawWedge(c, level, i, highlighted);
+			}
+
+			if (saveCount != -1) {
+				c.restoreToCount(saveCount);
+			}
+		}
+
+		//Check if the user has given input for centre circle
+		if(centerCircle != null) {
+			drawCenterCircle(c, circlePressed);
+		}
+
+		// Draws Text in TextBox
+		if (headerString != null) {
+			// Moves the header box above the outermost ring
+			int headerSaveCount = c.save();
+			c.translate(0, -getHeaderShift(ringFraction));
+
 			paint.setColor(outlineColor);
 			paint.setAlpha(outlineAlpha);
 			paint.setStyle(Paint.Style.STROKE);
-			c.drawPath(f, paint);
-			if (f == enabled && Wedge2Shown == true) {
-				paint.setColor(wedge2Color);
-				paint.setAlpha(wedge2Alpha);
-				paint.setStyle(Paint.Style.FILL);
-				c.drawPath(f, paint);
-			} else if (f != enabled && Wedge2Shown == true) {
-				paint.setColor(disabledColor);
-				paint.setAlpha(disabledAlpha);
-				paint.setStyle(Paint.Style.FILL);
-				c.drawPath(f, paint);
-			} else if (f == enabled && Wedge2Shown == false) {
-				paint.setColor(wedge2Color);
-				paint.setAlpha(wedge2Alpha);
-				paint.setStyle(Paint.Style.FILL);
-				c.drawPath(f, paint);
-			} else if (f == selected) {
-				paint.setColor(wedge2Color);
-				paint.setAlpha(wedge2Alpha);
-				paint.setStyle(Paint.Style.FILL);
-				c.drawPath(f, paint);
-			} else {
-				paint.setColor(defaultColor);
-				paint.setAlpha(defaultAlpha);
-				paint.setStyle(Paint.Style.FILL);
-				c.drawPath(f, paint);
-			}
+			c.drawRoundRect(this.textBoxRect, scalePX(5), scalePX(5), paint);
+			paint.setColor(headerBackgroundColor);
+			paint.setAlpha(headerBackgroundAlpha);
+			paint.setStyle(Paint.Style.FILL);
+			c.drawRoundRect(this.textBoxRect, scalePX(5), scalePX(5), paint);
 
-			Rect rf = iconRect[i];
+			paint.setColor(headerTextColor);
+			paint.setAlpha(headerTextAlpha);
+			paint.setStyle(Paint.Style.FILL);
+			paint.setTextSize(headerTextSize);
+			c.drawText(headerString, headerTextLeft, headerTextBottom, paint);
+			c.restoreToCount(headerSaveCount);
+		}
+	}
 
-			if ((menuEntries.get(i).getIcon() != 0)
-					&& (menuEntries.get(i).getLabel() != null)) {
+	/**
+	 * @param ringFraction - Open fraction of the outermost ring.
+	 * @return How far the header box is moved up to clear the open rings.
+	 */
+	private float getHeaderShift(float ringFraction) {
+		int top = ringStack.size() - 1;
+		if (top < 1)
+			return 0;
+		int outer = ringStack.get(top).getOuterRadius();
+		int below = ringStack.get(top - 1).getOuterRadius();
+		return (below - MaxSize) + (outer - below) * ringFraction;
+	}
 
-				// This will look for a "new line" and split into multiple lines
-				String menuItemName = menuEntries.get(i).getLabel();
-				String[] stringArray = menuItemName.split("\n");
+	/**
+	 * Draws a single wedge. Rings below the outermost one show the wedge that
+	 * opened the next ring and grey out the others. Disabled items are greyed
+	 * out too.
+	 * @param c - Canvas to draw on.
+	 * @param level - Ring level of the wedge.
+	 * @param i - Wedge index in the ring.
+	 * @param highlighted - Highlighted wedge, or null.
+	 */
+	private void drawWedge(Canvas c, int level, int i,
+			RadialMenuWedge highlighted) {
+		RadialMenuRing ring = ringStack.get(level);
+		RadialMenuWedge f = ring.getWedge(i);
+		boolean opener = i == ring.getOpenedIndex()
+				&& level < ringStack.size() - 1;
+		boolean covered = (level < ringStack.size() - 1 || !ring.getItem(i)
+				.isEnabled()) && !opener;
+		paint.setColor(outlineColor);
+		paint.setAlpha(outlineAlpha);
+		paint.setStyle(Paint.Style.STROKE);
+		c.drawPath(f, paint);
+		if (opener == true) {
+			paint.setColor(wedge2Color);
+			paint.setAlpha(wedge2Alpha);
+		} else if (covered == true) {
+			paint.setColor(disabledColor);
+			paint.setAlpha(disabledAlpha);
+		} else if (level > 0 && f == highlighted) {
+			paint.setColor(selectedColor);
+			paint.setAlpha(selectedAlpha);
+		} else if (level > 0 || f == highlighted) {
+			paint.setColor(wedge2Color);
+			paint.setAlpha(wedge2Alpha);
+		} else {
+			paint.setColor(defaultColor);
+			paint.setAlpha(defaultAlpha);
+		}
+		paint.setStyle(Paint.Style.FILL);
+		c.drawPath(f, paint);
+
+		Rect rf = ring.getIconRect(i);
+		if (covered == true) {
+			drawMenuItemContent(c, ring.getItem(i), rf, textSize,
+					disabledAlpha, disabledAlpha);
+			drawBadge(c, rf, ring.getBadgeText(i), disabledAlpha);
+		} else {
+			drawMenuItemContent(c, ring.getItem(i), rf, textSize,
+					textAlpha, pictureAlpha);
+			drawBadge(c, rf, ring.getBadgeText(i), 255);
+		}
+	}
 
-				paint.setColor(textColor);
-				if (f != enabled && Wedge2Shown == true) {
-					paint.setAlpha(disabledAlpha);
-				} else {
-					paint.setAlpha(textAlpha);
-				}
-				paint.setStyle(Paint.Style.FILL);
-				paint.setTextSize(textSize);
+	/**
+	 * Draws a badge count on the top right corner of an icon rect.
+	 * @param c - Canvas to draw on.
+	 * @param rf - Icon rect of the wedge.
+	 * @param text - Badge text, or null for no badge.
+	 * @param alpha - Transparency of the badge.
+	 */
+	private void drawBadge(Canvas c, Rect rf, String text, int alpha) {
+		if (text == null)
+			return;
+		float textWidth = setBadgeRect(rf, text);
+		paint.setColor(badgeColor);
+		paint.setAlpha(alpha);
+		paint.setStyle(Paint.Style.FILL);
+		c.drawRoundRect(badgeRect, badgeRadius, badgeRadius, paint);
+		paint.setColor(badgeTextColor);
+		paint.setAlpha(alpha);
+		c.drawText(text, badgeRect.centerX() - textWidth / 2,
+				badgeRect.centerY() - (paint.ascent() + paint.descent()) / 2,
+				paint);
+	}
 
-				Rect rect = new Rect();
-				float textHeight = 0;
-				for (int j = 0; j < stringArray.length; j++) {
-					paint.getTextBounds(stringArray[j], 0,
-							stringArray[j].length(), rect);
-					textHeight = textHeight + (rect.height() + 3);
-				}
+	/**
+	 * Sets the badge bounds for a badge text.
+	 * @param rf - Icon rect of the wedge.
+	 * @param text - Badge text.
+	 * @return The width of the text.
+	 */
+	private float setBadgeRect(Rect rf, String text) {
+		paint.setTextSize(badgeTextSize);
+		float textWidth = paint.measureText(text);
+		float halfWidth = Math.max(badgeRadius, (textWidth + badgeRadius) / 2);
+		badgeRect.set(rf.right - halfWidth, rf.top - badgeRadius, rf.right
+				+ halfWidth, rf.top + badgeRadius);
+		return textWidth;
+	}
 
-				Rect rf2 = new Rect();
-				rf2.set(rf.left, rf.top - ((int) textHeight / 2), rf.right,
-						rf.bottom - ((int) textHeight / 2));
-
-				float textBottom = rf2.bottom;
-				for (int j = 0; j < stringArray.length; j++) {
-					paint.getTextBounds(stringArray[j], 0,
-							stringArray[j].length(), rect);
-					float textLeft = rf.centerX() - rect.width() / 2;
-					textBottom = textBottom + (rect.height() + 3);
-					c.drawText(stringArray[j], textLeft - rect.left, textBottom
-							- rect.bottom, paint);
-				}
+	/**
+	 * Adds the bounds of a badge to the dirty region.
+	 * @param rf - Icon rect of the wedge.
+	 * @param text - Badge text, or null for no badge.
+	 */
+	private void addDirtyBadge(Rect rf, String text) {
+		if (text != null) {
+			setBadgeRect(rf, text);
+			badgeRect.roundOut(dirtyWedgeRect);
+			dirtyWedgeRect.inset(-DIRTY_PADDING, -DIRTY_PADDING);
+			dirtyRect.union(dirtyWedgeRect);
+		}
+	}
 
-				// Puts in the Icon
-				Drawable drawable = getResources().getDrawable(
-						menuEntries.get(i).getIcon());
-				drawable.setBounds(rf2);
-				if (f != enabled && Wedge2Shown == true) {
-					drawable.setAlpha(disabledAlpha);
-				} else {
-					drawable.setAlpha(pictureAlpha);
-				}
-				drawable.draw(c);
-
-				// Icon Only
-			} else if (menuEntries.get(i).getIcon() != 0) {
-				// Puts in the Icon
-				Drawable drawable = getResources().getDrawable(
-						menuEntries.get(i).getIcon());
-				drawable.setBounds(rf);
-				if (f != enabled && Wedge2Shown == true) {
-					drawable.setAlpha(disabledAlpha);
-				} else {
-					drawable.setAlpha(pictureAlpha);
-				}
-				drawable.draw(c);
+	/**
+	 * Posts a badge update unless one is already waiting for the next frame,
+	 * so any number of badge changes between two frames costs one update.
+	 */
+	private void scheduleBadgeUpdate() {
+		if (badgeUpdatePosted == false) {
+			badgeUpdatePosted = true;
+			post(badgeUpdate);
+		}
+	}
 
-				// Text Only
-			} else {
-				// Puts in the Text if no Icon
-				paint.setColor(textColor);
-				if (f != enabled && Wedge2Shown == true) {
-					paint.setAlpha(disabledAlpha);
-				} else {
-					paint.setAlpha(textAlpha);
+	/**
+	 * Reads the badge counts of the shown wedges and redraws only the badges
+	 * whose count changed.
+	 */
+	private void updateBadges() {
+		dirtyRect.setEmpty();
+		for (int level = 0; level < ringStack.size(); level++) {
+			RadialMenuRing ring = ringStack.get(level);
+			for (int i = 0; i < ring.getWedgeQty(); i++) {
+				String oldText = ring.getBadgeText(i);
+				if (ring.updateBadge(i)) {
+					addDirtyBadge(ring.getIconRect(i), oldText);
+					addDirtyBadge(ring.getIconRect(i), ring.getBadgeText(i));
 				}
-				paint.setStyle(Paint.Style.FILL);
-				paint.setTextSize(textSize);
+			}
+		}
+		if (!dirtyRect.isEmpty()) {
+			invalidateRingLayer(dirtyRect);
+			invalidate(dirtyRect);
+		}
+	}
 
-				// This will look for a "new line" and split into multiple lines
-				String menuItemName = menuEntries.get(i).getLabel();
-				String[] stringArray = menuItemName.split("\n");
-
-				// gets total height
-				Rect rect = new Rect();
-				float textHeight = 0;
-				for (int j = 0; j < stringArray.length; j++) {
-					paint.getTextBounds(stringArray[j], 0,
-							stringArray[j].length(), rect);
-					textHeight = textHeight + (rect.height() + 3);
-				}
+	private void drawCenterCircle(Canvas c, boolean pressed) {
+		// Draws the Middle Circle
+		paint.setColor(outlineColor);
+		paint.setAlpha(outlineAlpha);
+		paint.setStyle(Paint.Style.STROKE);
+		c.drawCircle(xPosition, yPosition, cRadius, paint);
+		if (pressed == true) {
+			paint.setColor(selectedColor);
+			paint.setAlpha(selectedAlpha);
+			paint.setStyle(Paint.Style.FILL);
+			c.drawCircle(xPosition, yPosition, cRadius, paint);
+		} else {
+			paint.setColor(defaultColor);
+			paint.setAlpha(defaultAlpha);
+			paint.setStyle(Paint.Style.FILL);
+			c.drawCircle(xPosition, yPosition, cRadius, paint);
+		}
 
-				float textBottom = rf.centerY() - (textHeight / 2);
-				for (int j = 0; j < stringArray.length; j++) {
-					paint.getTextBounds(stringArray[j], 0,
-							stringArray[j].length(), rect);
-					float textLeft = rf.centerX() - rect.width() / 2;
-					textBottom = textBottom + (rect.height() + 3);
-					c.drawText(stringArray[j], textLeft - rect.left, textBottom
-							- rect.bottom, paint);
-				}
+		// Draw the circle picture
+		drawMenuItemContent(c, centerCircle, centerIconRect, textSize,
+				textAlpha, pictureAlpha);
+	}
+
+	/**
+	 * Draws the cached resting rings, then paints only the highlighted wedge
+	 * over them. Nothing is clipped, so hardware accelerated canvases, which
+	 * can't clip to a path before API 18, draw it as well.
+	 * @param c - Canvas to draw on.
+	 */
+	private void drawRingLayer(Canvas c) {
+		c.drawBitmap(ringLayer, ringLayerBounds.left, ringLayerBounds.top,
+				null);
+
+		if (selected != null && selectedLevel < ringStack.size()) {
+			int selectedIndex = ringStack.get(selectedLevel).indexOf(selected);
+			if (selectedIndex != -1) {
+				drawWedge(c, selectedLevel, selectedIndex, selected);
 			}
+		}
+		if (inCircle == true && centerCircle != null) {
+			drawCenterCircle(c, true);
+		}
+	}
 
+	/**
+	 * Renders the resting rings into the cached layer if they changed since
+	 * the layer was last drawn.
+	 * @return False if the view has no size yet and the layer can't be used.
+	 */
+	private boolean updateRingLayer() {
+		int ringRadius = ringStack.get(ringStack.size() - 1).getOuterRadius()
+				+ textSize;
+		workRect.set(xPosition - ringRadius, yPosition - ringRadius, xPosition
+				+ ringRadius, yPosition + ringRadius);
+		if (headerString != null) {
+			int headerShift = (int) getHeaderShift(1);
+			workRect.union((int) textBoxRect.left - scalePX(3),
+					(int) textBoxRect.top - headerShift - scalePX(3),
+					(int) textBoxRect.right + scalePX(3),
+					(int) textBoxRect.bottom - headerShift + scalePX(3));
+		}
+		if (!workRect.intersect(0, 0, getWidth(), getHeight())) {
+			return false;
 		}
 
-		// Animate the outer ring in/out
-		if (animateOuterIn == true) {
-			animateOuterWedges(ANIMATE_IN);
-		} else if (animateOuterOut == true) {
-			animateOuterWedges(ANIMATE_OUT);
+		if (ringLayer != null && ringLayerValid == true
+				&& layerStackVersion == ringStackVersion
+				&& ringLayerBounds.equals(workRect)) {
+			if (!layerDirtyRect.isEmpty()) {
+				// Only the wedges that changed are drawn again
+				int saveCount = ringLayerCanvas.save();
+				ringLayerCanvas.translate(-ringLayerBounds.left,
+						-ringLayerBounds.top);
+				ringLayerCanvas.clipRect(layerDirtyRect);
+				ringLayerCanvas.drawColor(Color.TRANSPARENT,
+						PorterDuff.Mode.CLEAR);
+				drawRings(ringLayerCanvas, 1, null, false);
+				ringLayerCanvas.restoreToCount(saveCount);
+				layerDirtyRect.setEmpty();
+			}
+			return true;
 		}
 
-		if (Wedge2Shown == true) {
+		if (ringLayer == null || ringLayer.getWidth() != workRect.width()
+				|| ringLayer.getHeight() != workRect.height()) {
+			releaseRingLayer();
+			ringLayer = Bitmap.createBitmap(workRect.width(),
+					workRect.height(), Bitmap.Config.ARGB_8888);
+			ringLayerCanvas.setBitmap(ringLayer);
+		} else {
+			ringLayer.eraseColor(Color.TRANSPARENT);
+		}
+		ringLayerBounds.set(workRect);
 
-			for (int i = 0; i < Wedges2.length; i++) {
-				RadialMenuWedge f = Wedges2[i];
-				paint.setColor(outlineColor);
-				paint.setAlpha(outlineAlpha);
-				paint.setStyle(Paint.Style.STROKE);
-				c.drawPath(f, paint);
-				if (f == selected2) {
-					paint.setColor(selectedColor);
-					paint.setAlpha(selectedAlpha);
-					paint.setStyle(Paint.Style.FILL);
-					c.drawPath(f, paint);
-				} else {
-					paint.setColor(wedge2Color);
-					paint.setAlpha(wedge2Alpha);
-					paint.setStyle(Paint.Style.FILL);
-					c.drawPath(f, paint);
-				}
+		int saveCount = ringLayerCanvas.save();
+		ringLayerCanvas.translate(-ringLayerBounds.left, -ringLayerBounds.top);
+		drawRings(ringLayerCanvas, 1, null, false);
+		ringLayerCanvas.restoreToCount(saveCount);
 
-				Rect rf = iconRect2[i];
-				if ((wedge2Data.getChildren().get(i).getIcon() != 0)
-						&& (wedge2Data.getChildren().get(i).getLabel() != null)) {
-
-					// This will look for a "new line" and split into multiple
-					// lines
-					String menuItemName = wedge2Data.getChildren().get(i)
-							.getLabel();
-					String[] stringArray = menuItemName.split("\n");
-
-					paint.setColor(textColor);
-					paint.setAlpha(textAlpha);
-					paint.setStyle(Paint.Style.FILL);
-					paint.setTextSize(animateTextSize);
-
-					Rect rect = new Rect();
-					float textHeight = 0;
-					for (int j = 0; j < stringArray.length; j++) {
-						paint.getTextBounds(stringArray[j], 0,
-								stringArray[j].length(), rect);
-						textHeight = textHeight + (rect.height() + 3);
-					}
+		layerStackVersion = ringStackVersion;
+		ringLayerValid = true;
+		layerDirtyRect.setEmpty();
+		return true;
+	}
 
-					Rect rf2 = new Rect();
-					rf2.set(rf.left, rf.top - ((int) textHeight / 2), rf.right,
-							rf.bottom - ((int) textHeight / 2));
-
-					float textBottom = rf2.bottom;
-					for (int j = 0; j < stringArray.length; j++) {
-						paint.getTextBounds(stringArray[j], 0,
-								stringArray[j].length(), rect);
-						float textLeft = rf.centerX() - rect.width() / 2;
-						textBottom = textBottom + (rect.height() + 3);
-						c.drawText(stringArray[j], textLeft - rect.left,
-								textBottom - rect.bottom, paint);
-					}
+	/**
+	 * Marks the cached ring layer as stale so the next frame draws it again.
+	 */
+	private void invalidateRingLayer() {
+		ringLayerValid = false;
+	}
 
-					// Puts in the Icon
-					Drawable drawable = getResources().getDrawable(
-							wedge2Data.getChildren().get(i).getIcon());
-					drawable.setBounds(rf2);
-					drawable.setAlpha(pictureAlpha);
-					drawable.draw(c);
-
-					// Icon Only
-				} else if (wedge2Data.getChildren().get(i).getIcon() != 0) {
-					// Puts in the Icon
-					Drawable drawable = getResources().getDrawable(
-							wedge2Data.getChildren().get(i).getIcon());
-					drawable.setBounds(rf);
-					drawable.setAlpha(pictureAlpha);
-					drawable.draw(c);
-
-					// Text Only
-				} else {
-					// Puts in the Text if no Icon
-					paint.setColor(textColor);
-					paint.setAlpha(textAlpha);
-					paint.setStyle(Paint.Style.FILL);
-					paint.setTextSize(animateTextSize);
-
-					// This will look for a "new line" and split into multiple
-					// lines
-					String menuItemName = wedge2Data.getChildren().get(i)
-							.getLabel();
-					String[] stringArray = menuItemName.split("\n");
-
-					// gets total height
-					Rect rect = new Rect();
-					float textHeight = 0;
-					for (int j = 0; j < stringArray.length; j++) {
-						paint.getTextBounds(stringArray[j], 0,
-								stringArray[j].length(), rect);
-						textHeight = textHeight + (rect.height() + 3);
-					}
+	/**
+	 * Marks part of the cached ring layer as stale so the next frame only
+	 * draws that part again.
+	 * @param dirty - Stale region in view coordinates.
+	 */
+	private void invalidateRingLayer(Rect dirty) {
+		if (ringLayerValid == true) {
+			layerDirtyRect.union(dirty);
+		}
+	}
 
-					float textBottom = rf.centerY() - (textHeight / 2);
-					for (int j = 0; j < stringArray.length; j++) {
-						paint.getTextBounds(stringArray[j], 0,
-								stringArray[j].length(), rect);
-						float textLeft = rf.centerX() - rect.width() / 2;
-						textBottom = textBottom + (rect.height() + 3);
-						c.drawText(stringArray[j], textLeft - rect.left,
-								textBottom - rect.bottom, paint);
-					}
-				}
-			}
+	private void releaseRingLayer() {
+		if (ringLayer != null) {
+			ringLayer.recycle();
+			ringLayer = null;
 		}
+		ringLayerValid = false;
+	}
 
-		//Check if the user has given input for centre circle
-		if(centerCircle != null) {
-			// Draws the Middle Circle
-			paint.setColor(outlineColor);
-			paint.setAlpha(outlineAlpha);
-			paint.setStyle(Paint.Style.STROKE);
-			c.drawCircle(xPosition, yPosition, cRadius, paint);
-			if (inCircle == true) {
-				paint.setColor(selectedColor);
-				paint.setAlpha(selectedAlpha);
-				paint.setStyle(Paint.Style.FILL);
-				c.drawCircle(xPosition, yPosition, cRadius, paint);
-				helper.onCloseAnimation(this, xPosition, yPosition, xSource,
-						ySource);
-			} else {
-				paint.setColor(defaultColor);
-				paint.setAlpha(defaultAlpha);
-				paint.setStyle(Paint.Style.FILL);
-				c.drawCircle(xPosition, yPosition, cRadius, paint);
-			}
-			
-			// Draw the circle picture
-			if ((centerCircle.getIcon() != 0) && (centerCircle.getLabel() != null)) {
-	
-				// This will look for a "new line" and split into multiple lines
-				String menuItemName = centerCircle.getLabel();
-				String[] stringArray = menuItemName.split("\n");
-	
-				paint.setColor(textColor);
-				paint.setAlpha(textAlpha);
-				paint.setStyle(Paint.Style.FILL);
-				paint.setTextSize(textSize);
-	
-				Rect rectText = new Rect();
-				Rect rectIcon = new Rect();
-				Drawable drawable = getResources().getDrawable(
-						centerCircle.getIcon());
-	
-				int h = getIconSize(drawable.getIntrinsicHeight(), MinIconSize,
-						MaxIconSize);
-				int w = getIconSize(drawable.getIntrinsicWidth(), MinIconSize,
-						MaxIconSize);
-				rectIcon.set(xPosition - w / 2, yPosition - h / 2, xPosition + w
-						/ 2, yPosition + h / 2);
-	
-				float textHeight = 0;
-				for (int j = 0; j < stringArray.length; j++) {
-					paint.getTextBounds(stringArray[j], 0, stringArray[j].length(),
-							rectText);
-					textHeight = textHeight + (rectText.height() + 3);
+	@Override
+	protected void onAttachedToWindow() {
+		super.onAttachedToWindow();
+		attached = true;
+		setRingObservers(itemListener);
+		// Items may have changed while nothing was observing them
+		determineWedges();
+	}
+
+	@Override
+	protected void onDetachedFromWindow() {
+		super.onDetachedFromWindow();
+		attached = false;
+		// Lets the items outlive the widget
+		setRingObservers(null);
+		removeCallbacks(badgeUpdate);
+		badgeUpdatePosted = false;
+		releaseRingLayer();
+	}
+
+	/**
+	 * Registers or unregisters the item listener on every shown and cached
+	 * ring, and on the center circle.
+	 * @param observer - Listener to register, or null to unregister.
+	 */
+	private void setRingObservers(RadialMenuItem.OnItemChangedListener observer) {
+		for (int level = 0; level < ringStack.size(); level++) {
+			ringStack.get(level).setObserver(observer);
+		}
+		for (RadialMenuRing ring : ringCache.values()) {
+			ring.setObserver(observer);
+		}
+		if (centerCircle != null) {
+			if (observer != null)
+				centerCircle.addItemListener(observer);
+			else
+				centerCircle.removeItemListener(itemListener);
+		}
+	}
+
+	/**
+	 * Updates the widget after a shown item changed. A new label or icon only
+	 * rebuilds the icon rect of that wedge and redraws it, new children only
+	 * lay out the ring they are shown in.
+	 * @param item - Item that changed.
+	 * @param what - Changed properties, see RadialMenuItem.
+	 */
+	private void onMenuItemChanged(RadialMenuItem item, int what) {
+		boolean full = false;
+		dirtyRect.setEmpty();
+		if (searchIndex != null
+				&& (what & (RadialMenuItem.CHANGED_LABEL | RadialMenuItem.CHANGED_CHILDREN)) != 0) {
+			searchIndex.update(item);
+		}
+		if (item == centerCircle) {
+			determineCenterIcon();
+			full = true;
+		}
+		for (int level = ringStack.size() - 1; level >= 0; level--) {
+			RadialMenuRing ring = ringStack.get(level);
+			int i = ring.indexOf(item);
+			if (i == -1)
+				continue;
+			if ((what & RadialMenuItem.CHANGED_CHILDREN) != 0
+					&& ring.getOpenedIndex() == i) {
+				if (item.hasChildren()) {
+					layoutRing(ringStack.get(level + 1), level + 1);
+				} else {
+					closeRingsAbove(level);
 				}
-	
-				rectIcon.set(rectIcon.left, rectIcon.top - ((int) textHeight / 2),
-						rectIcon.right, rectIcon.bottom - ((int) textHeight / 2));
-	
-				float textBottom = rectIcon.bottom;
-				for (int j = 0; j < stringArray.length; j++) {
-					paint.getTextBounds(stringArray[j], 0, stringArray[j].length(),
-							rectText);
-					float textLeft = xPosition - rectText.width() / 2;
-					textBottom = textBottom + (rectText.height() + 3);
-					c.drawText(stringArray[j], textLeft - rectText.left, textBottom
-							- rectText.bottom, paint);
+				full = true;
+			}
+			if ((what & (RadialMenuItem.CHANGED_LABEL | RadialMenuItem.CHANGED_ICON)) != 0) {
+				// Covers both the old and the new label
+				addDirtyContent(ring, i);
+				if ((what & RadialMenuItem.CHANGED_ICON) != 0) {
+					layoutIconRect(ring, i);
 				}
-	
-				// Puts in the Icon
-				drawable.setBounds(rectIcon);
-				drawable.setAlpha(pictureAlpha);
-				drawable.draw(c);
-	
-				// Icon Only
-			} else if (centerCircle.getIcon() != 0) {
-	
-				Rect rect = new Rect();
-	
-				Drawable drawable = getResources().getDrawable(
-						centerCircle.getIcon());
-	
-				int h = getIconSize(drawable.getIntrinsicHeight(), MinIconSize,
-						MaxIconSize);
-				int w = getIconSize(drawable.getIntrinsicWidth(), MinIconSize,
-						MaxIconSize);
-				rect.set(xPosition - w / 2, yPosition - h / 2, xPosition + w / 2,
-						yPosition + h / 2);
-	
-				drawable.setBounds(rect);
-				drawable.setAlpha(pictureAlpha);
-				drawable.draw(c);
-	
-				// Text Only
-			} else {
-				// Puts in the Text if no Icon
-				paint.setColor(textColor);
-				paint.setAlpha(textAlpha);
-				paint.setStyle(Paint.Style.FILL);
 				paint.setTextSize(textSize);
-	
-				// This will look for a "new line" and split into multiple lines
-				String menuItemName = centerCircle.getLabel();
-				String[] stringArray = menuItemName.split("\n");
-	
-				// gets total height
-				Rect rect = new Rect();
-				float textHeight = 0;
-				for (int j = 0; j < stringArray.length; j++) {
-					paint.getTextBounds(stringArray[j], 0, stringArray[j].length(),
-							rect);
-					textHeight = textHeight + (rect.height() + 3);
-				}
-	
-				float textBottom = yPosition - (textHeight / 2);
-				for (int j = 0; j < stringArray.length; j++) {
-					paint.getTextBounds(stringArray[j], 0, stringArray[j].length(),
-							rect);
-					float textLeft = xPosition - rect.width() / 2;
-					textBottom = textBottom + (rect.height() + 3);
-					c.drawText(stringArray[j], textLeft - rect.left, textBottom
-							- rect.bottom, paint);
-				}
-	
+				item.getLabelLayout(paint, labelGeneration);
+				addDirtyContent(ring, i);
+			}
+			if ((what & RadialMenuItem.CHANGED_ENABLED) != 0) {
+				addDirtyWedge(ring.getWedge(i));
+			}
+			if ((what & RadialMenuItem.CHANGED_WEIGHT) != 0) {
+				// Every wedge of the ring moves
+				layoutRing(ring, level);
+				full = true;
 			}
 		}
+		if (full == true) {
+			invalidateRingLayer();
+			invalidate();
+		} else if (!dirtyRect.isEmpty()) {
+			invalidateRingLayer(dirtyRect);
+			invalidate(dirtyRect);
+		}
+	}
 
-		// Draws Text in TextBox
-		if (headerString != null) {
-
-			paint.setTextSize(headerTextSize);
-			paint.getTextBounds(headerString, 0, headerString.length(),
-					this.textRect);
-			if (HeaderBoxBounded == false) {
-				determineHeaderBox();
-				HeaderBoxBounded = true;
-			}
+	/**
+	 * Adds a wedge and the label drawn in it to the dirty region.
+	 * @param ring - Ring of the wedge.
+	 * @param i - Wedge index in the ring.
+	 */
+	private void addDirtyContent(RadialMenuRing ring, int i) {
+		addDirtyWedge(ring.getWedge(i));
+		addDirtyBadge(ring.getIconRect(i), ring.getBadgeText(i));
+		RadialMenuLabelLayout layout = ring.getItem(i).peekLabelLayout();
+		if (layout != null) {
+			layout.unionBounds(ring.getIconRect(i), true, dirtyRect);
+			layout.unionBounds(ring.getIconRect(i), false, dirtyRect);
+		}
+	}
 
-			paint.setColor(outlineColor);
-			paint.setAlpha(outlineAlpha);
-			paint.setStyle(Paint.Style.STROKE);
-			c.drawRoundRect(this.textBoxRect, scalePX(5), scalePX(5), paint);
-			paint.setColor(headerBackgroundColor);
-			paint.setAlpha(headerBackgroundAlpha);
+	/**
+	 * Draws the icon and/or label of a menu item inside its icon rect. The
+	 * label layout is measured once per item and reused between frames.
+	 * @param c - Canvas to draw on.
+	 * @param item - Menu item to draw.
+	 * @param rf - Icon rect of the item.
+	 * @param size - Text size of the label.
+	 * @param labelAlpha - Transparency of the label.
+	 * @param iconAlpha - Transparency of the icon.
+	 */
+	private void drawMenuItemContent(Canvas c, RadialMenuItem item, Rect rf,
+			int size, int labelAlpha, int iconAlpha) {
+		if ((item.getIcon() != 0) && (item.getLabel() != null)) {
+			paint.setColor(textColor);
+			paint.setAlpha(labelAlpha);
 			paint.setStyle(Paint.Style.FILL);
-			c.drawRoundRect(this.textBoxRect, scalePX(5), scalePX(5), paint);
-
-			paint.setColor(headerTextColor);
-			paint.setAlpha(headerTextAlpha);
+			paint.setTextSize(size);
+			RadialMenuLabelLayout layout = item.getLabelLayout(paint,
+					labelGeneration);
+			layout.drawBelowIcon(c, paint, rf);
+
+			// Puts in the Icon above the label
+			int shift = layout.getIconShift();
+			labelIconRect.set(rf.left, rf.top - shift, rf.right, rf.bottom
+					- shift);
+			Drawable drawable = iconCache.get(getResources(), item.getIcon())
+					.getDrawable(iconAlpha);
+			drawable.setBounds(labelIconRect);
+			drawable.draw(c);
+
+			// Icon Only
+		} else if (item.getIcon() != 0) {
+			Drawable drawable = iconCache.get(getResources(), item.getIcon())
+					.getDrawable(iconAlpha);
+			drawable.setBounds(rf);
+			drawable.draw(c);
+
+			// Text Only
+		} else {
+			paint.setColor(textColor);
+			paint.setAlpha(labelAlpha);
 			paint.setStyle(Paint.Style.FILL);
-			paint.setTextSize(headerTextSize);
-			c.drawText(headerString, headerTextLeft, headerTextBottom, paint);
+			paint.setTextSize(size);
+			item.getLabelLayout(paint, labelGeneration).drawCentered(c, paint,
+					rf);
 		}
-
 	}
 
 	private int scalePX(int dp_size) {
 		int px_size = (int) (dp_size * screen_density + 0.5f);
 		return px_size;
 	}
-	
-	private int getIconSize(int iconSize, int minSize, int maxSize) {
 
-		if (iconSize > minSize) {
-			if (iconSize > maxSize) {
-				return maxSize;
-			} else { // iconSize < maxSize
-				return iconSize;
-			}
-		} else { // iconSize < minSize
-			return minSize;
+	private void determineWedges() {
+		pickUpEntries();
+		ringLayoutVersion++;
+		if (menuEntries.isEmpty()) {
+			// Every entry was removed, only the center circle is left
+			closeOuterRings();
+		}
+		for (int level = 0; level < ringStack.size(); level++) {
+			layoutRing(ringStack.get(level), level);
 		}
+		determineCenterIcon();
+		determineHeaderBox();
 
-	}
+		sectorResolver.setCenter(xPosition, yPosition);
+		sectorResolver.setRing(RING_CENTER, 0, cRadius, 0, 360, 1);
 
-	private void animateOuterWedges(int animation_direction) {
-		boolean animationComplete = false;
-		// Wedge 2
-		float slice2 = 360 / wedgeQty2;
-		float start_slice2 = 270 - (slice2 / 2);
-		// calculates where to put the images
-		double rSlice2 = (2 * Math.PI) / wedgeQty2;
-		double rStart2 = (2 * Math.PI) * (0.75) - (rSlice2 / 2);
+		invalidateRingLayer();
+		invalidate(); // re-draws the picture
+	}
 
-		this.Wedges2 = new RadialMenuWedge[wedgeQty2];
-		this.iconRect2 = new Rect[wedgeQty2];
+	/**
+	 * Builds the wedges and icon rects of a ring for the level it is shown
+	 * at, and registers the ring for hit testing.
+	 * @param ring - Ring to lay out.
+	 * @param level - Level of the ring, 0 being the first ring.
+	 */
+	private void layoutRing(RadialMenuRing ring, int level) {
+		List<RadialMenuItem> items = menuEntries;
+		if (level > 0) {
+			items = ring.getParent().getChildren();
+			if (items == null) {
+				// Shows the placeholder until the children are loaded
+				items = loadingItems;
+				ring.getParent().requestChildren(childrenListener);
+			}
+		}
+		int innerSize = getRingInnerRadius(level);
+		int outerSize = getRingOuterRadius(level);
+
+		if (!ring.isLaidOut(items, level, ringLayoutVersion)) {
+			ring.setLayout(items, level, innerSize, outerSize,
+					ringLayoutVersion);
+			applyUsageOrder(ring);
+			layoutWedges(ring);
+		} else {
+			boolean moved = applyUsageOrder(ring);
+			if (ring.weightsChanged()) {
+				layoutWedges(ring);
+			} else if (moved) {
+				// The wedges stay, only the icons follow the items
+				for (int i = 0; i < ring.getWedgeQty(); i++) {
+					layoutIconRect(ring, i);
+				}
+			}
+		}
 
-		Wedge2Shown = true;
+		sectorResolver.setRing(RING_INNER + level, ring.getInnerRadius(),
+				ring.getOuterRadius(), ring.getAngles(), ring.getWedgeQty());
 
-		int wedgeSizeChange = (r2MaxSize - r2MinSize) / animateSections;
+		// The usage order may have moved the wedge under the next ring, which
+		// is looked up in the wedges and not in the items list
+		boolean closing = ringClosing && level + 2 == ringStack.size();
+		if (level + 1 < ringStack.size() && ringStack.get(level) == ring
+				&& !closing) {
+			ring.setOpenedIndex(ring.indexOf(ringStack.get(level + 1)
+					.getParent()));
+		}
+	}
 
-		if (animation_direction == ANIMATE_OUT) {
-			if (r2MinSize + r2VariableSize + wedgeSizeChange < r2MaxSize) {
-				r2VariableSize += wedgeSizeChange;
-			} else {
-				animateOuterOut = false;
-				r2VariableSize = r2MaxSize - r2MinSize;
-				animationComplete = true;
-			}
+	/**
+	 * Sizes the wedges of a ring by the weights of the items they show and
+	 * places their icons.
+	 * @param ring - Ring with its items set.
+	 */
+	private void layoutWedges(RadialMenuRing ring) {
+		// The first wedge is centered on the top of the ring
+		ring.layoutAngles(270);
+		for (int i = 0; i < ring.getWedgeQty(); i++) {
+			ring.getWedge(i).set(xPosition, yPosition, ring.getInnerRadius(),
+					ring.getOuterRadius(), ring.getWedgeStart(i),
+					ring.getWedgeSweep(i));
+			layoutIconRect(ring, i);
+		}
+	}
 
-			// animates text size change
-			this.animateTextSize = (textSize / animateSections)
-					* (r2VariableSize / wedgeSizeChange);
-
-			// calculates new wedge sizes
-			for (int i = 0; i < Wedges2.length; i++) {
-				this.Wedges2[i] = new RadialMenuWedge(xPosition, yPosition,
-						r2MinSize, r2MinSize + r2VariableSize, (i * slice2)
-								+ start_slice2, slice2);
-				float xCenter = (float) (Math
-						.cos(((rSlice2 * i) + (rSlice2 * 0.5)) + rStart2)
-						* (r2MinSize + r2VariableSize + r2MinSize) / 2)
-						+ xPosition;
-				float yCenter = (float) (Math
-						.sin(((rSlice2 * i) + (rSlice2 * 0.5)) + rStart2)
-						* (r2MinSize + r2VariableSize + r2MinSize) / 2)
-						+ yPosition;
-
-				int h = MaxIconSize;
-				int w = MaxIconSize;
-				if (wedge2Data.getChildren().get(i).getIcon() != 0) {
-					Drawable drawable = getResources().getDrawable(
-							wedge2Data.getChildren().get(i).getIcon());
-					h = getIconSize(drawable.getIntrinsicHeight(), MinIconSize,
-							MaxIconSize);
-					w = getIconSize(drawable.getIntrinsicWidth(), MinIconSize,
-							MaxIconSize);
-				}
+	/**
+	 * Moves the most used items of a ring to the wedges nearest the top,
+	 * keeping the wedges themselves.
+	 * @param ring - Ring to reorder.
+	 * @return True if any item moved.
+	 */
+	private boolean applyUsageOrder(RadialMenuRing ring) {
+		int qty = ring.getWedgeQty();
+		if (usageStore == null || ring == searchRing || qty < 2)
+			return false;
+		if (usageScores.length < qty) {
+			usageScores = new float[qty];
+			usagePositions = new int[qty];
+			usageEasiest = new int[qty];
+		}
+		for (int k = 0; k < qty; k++) {
+			usageScores[k] = usageStore.getScore(RadialUsageStore.hashKey(
+					ring.getUsageKey(), ring.getListedItem(k).getName()));
+		}
+		// The first wedge is centered on the top of the ring
+		RadialUsageStore.orderByUsage(usageScores, qty, 0, true,
+				usagePositions, usageEasiest);
+		return ring.reorder(usagePositions);
+	}
 
-				if (r2VariableSize < h) {
-					h = r2VariableSize;
-				}
-				if (r2VariableSize < w) {
-					w = r2VariableSize;
-				}
+	/**
+	 * Presses the item of the first ring a marking stroke points at. The
+	 * menu is not shown, the wedges of the first ring are read as they were
+	 * last laid out.
+	 * @param x - X location the stroke ended at on the anchor.
+	 * @param y - Y location the stroke ended at on the anchor.
+	 */
+	private void activateMarkedItem(float x, float y) {
+		pickUpEntries();
+		int sector = RadialStrokeRecognizer.recognize(markingX, markingY, x,
+				y, MinSize, rootRing.getAngles(), rootRing.getWedgeQty());
+		if (sector == RadialSectorResolver.NO_SECTOR)
+			return;
+		RadialMenuItem item = rootRing.getItem(sector);
+		if (item == loadingItem || !item.isEnabled())
+			return;
+		recordUsage(rootRing, item);
+		item.menuActiviated();
+	}
 
-				this.iconRect2[i] = new Rect((int) xCenter - w / 2,
-						(int) yCenter - h / 2, (int) xCenter + w / 2,
-						(int) yCenter + h / 2);
+	/**
+	 * Counts a press of an item in the usage store, if there is one.
+	 * @param ring - Ring the item was pressed in.
+	 * @param item - Pressed item.
+	 */
+	private void recordUsage(RadialMenuRing ring, RadialMenuItem item) {
+		if (usageStore != null && ring != searchRing) {
+			usageStore.recordUse(RadialUsageStore.hashKey(ring.getUsageKey(),
+					item.getName()));
+		}
+	}
 
-				int widthOffset = MaxSize;
-				if (widthOffset < this.textRect.width() / 2) {
-					widthOffset = this.textRect.width() / 2 + scalePX(3);
-				}
-				this.textBoxRect
-						.set((xPosition - (widthOffset)), (int) (yPosition
-								- (r2MinSize + r2VariableSize) - headerBuffer
-								- this.textRect.height() - scalePX(3)),
-								(xPosition + (widthOffset)), (yPosition
-										- (r2MinSize + r2VariableSize)
-										- headerBuffer + scalePX(3)));
-				this.headerTextBottom = yPosition
-						- (r2MinSize + r2VariableSize) - headerBuffer
-						- this.textRect.bottom;
+	/**
+	 * Calculates where to put the image of a single wedge.
+	 * @param ring - Laid out ring of the wedge.
+	 * @param i - Wedge index in the ring.
+	 */
+	private void layoutIconRect(RadialMenuRing ring, int i) {
+		int innerSize = ring.getInnerRadius();
+		int outerSize = ring.getOuterRadius();
+		// Middle of the wedge
+		double rCenter = Math.toRadians(ring.getWedgeStart(i)
+				+ ring.getWedgeSweep(i) / 2);
+		float xCenter = (float) (Math.cos(rCenter) * (outerSize + innerSize) / 2)
+				+ xPosition;
+		float yCenter = (float) (Math.sin(rCenter) * (outerSize + innerSize) / 2)
+				+ yPosition;
+
+		int h = MaxIconSize;
+		int w = MaxIconSize;
+		RadialMenuItem item = ring.getItem(i);
+		if (item.getIcon() != 0) {
+			RadialMenuIconCache.Icon icon = iconCache.get(getResources(),
+					item.getIcon());
+			h = icon.getHeight(MinIconSize, MaxIconSize);
+			w = icon.getWidth(MinIconSize, MaxIconSize);
+		}
 
-			}
+		ring.getIconRect(i).set((int) xCenter - w / 2, (int) yCenter - h / 2,
+				(int) xCenter + w / 2, (int) yCenter + h / 2);
+	}
 
-		} else if (animation_direction == ANIMATE_IN) {
-			if (r2MinSize < r2MaxSize - r2VariableSize - wedgeSizeChange) {
-				r2VariableSize += wedgeSizeChange;
-			} else {
-				animateOuterIn = false;
-				r2VariableSize = r2MaxSize;
-				animationComplete = true;
-			}
+	/**
+	 * @param level - Ring level, 0 being the first ring.
+	 * @return The inner border radius of the ring.
+	 */
+	private int getRingInnerRadius(int level) {
+		if (level == 0)
+			return MinSize;
+		return r2MinSize + (level - 1) * (r2MaxSize - MaxSize);
+	}
 
-			// animates text size change
-			this.animateTextSize = textSize
-					- ((textSize / animateSections) * (r2VariableSize / wedgeSizeChange));
-
-			for (int i = 0; i < Wedges2.length; i++) {
-				this.Wedges2[i] = new RadialMenuWedge(xPosition, yPosition,
-						r2MinSize, r2MaxSize - r2VariableSize, (i * slice2)
-								+ start_slice2, slice2);
-
-				float xCenter = (float) (Math
-						.cos(((rSlice2 * i) + (rSlice2 * 0.5)) + rStart2)
-						* (r2MaxSize - r2VariableSize + r2MinSize) / 2)
-						+ xPosition;
-				float yCenter = (float) (Math
-						.sin(((rSlice2 * i) + (rSlice2 * 0.5)) + rStart2)
-						* (r2MaxSize - r2VariableSize + r2MinSize) / 2)
-						+ yPosition;
-
-				int h = MaxIconSize;
-				int w = MaxIconSize;
-				if (wedge2Data.getChildren().get(i).getIcon() != 0) {
-					Drawable drawable = getResources().getDrawable(
-							wedge2Data.getChildren().get(i).getIcon());
-					h = getIconSize(drawable.getIntrinsicHeight(), MinIconSize,
-							MaxIconSize);
-					w = getIconSize(drawable.getIntrinsicWidth(), MinIconSize,
-							MaxIconSize);
-				}
+	/**
+	 * @param level - Ring level, 0 being the first ring.
+	 * @return The outer border radius of the ring.
+	 */
+	private int getRingOuterRadius(int level) {
+		if (level == 0)
+			return MaxSize;
+		return r2MaxSize + (level - 1) * (r2MaxSize - MaxSize);
+	}
 
-				if (r2MaxSize - r2MinSize - r2VariableSize < h) {
-					h = r2MaxSize - r2MinSize - r2VariableSize;
-				}
-				if (r2MaxSize - r2MinSize - r2VariableSize < w) {
-					w = r2MaxSize - r2MinSize - r2VariableSize;
-				}
+	/**
+	 * Lays out the wedges, or remembers to do it once the current batch of
+	 * updates ends.
+	 */
+	private void requestWedgeLayout() {
+		if (updateDepth > 0) {
+			wedgeLayoutPending = true;
+		} else {
+			determineWedges();
+		}
+	}
 
-				this.iconRect2[i] = new Rect((int) xCenter - w / 2,
-						(int) yCenter - h / 2, (int) xCenter + w / 2,
-						(int) yCenter + h / 2);
+	/**
+	 * Publishes a new list of entries. Called with the publishedEntries lock
+	 * held, so concurrent changes are never lost.
+	 * @param entries - New entries, not changed after this call.
+	 */
+	private void publishEntries(List<RadialMenuItem> entries) {
+		publishedEntries.set(Collections.unmodifiableList(entries));
+		// Safe from any thread, the next frame picks up the entries
+		postInvalidate();
+	}
 
-				// computes header text box
-				int heightOffset = r2MaxSize - r2VariableSize;
-				int widthOffset = MaxSize;
-				if (MaxSize > r2MaxSize - r2VariableSize) {
-					heightOffset = MaxSize;
-				}
-				if (widthOffset < this.textRect.width() / 2) {
-					widthOffset = this.textRect.width() / 2 + scalePX(3);
-				}
-				this.textBoxRect.set((xPosition - (widthOffset)),
-						(int) (yPosition - (heightOffset) - headerBuffer
-								- this.textRect.height() - scalePX(3)),
-						(xPosition + (widthOffset)), (yPosition
-								- (heightOffset) - headerBuffer + scalePX(3)));
-				this.headerTextBottom = yPosition - (heightOffset)
-						- headerBuffer - this.textRect.bottom;
+	/**
+	 * Switches to the latest published entries if they changed, and lays out
+	 * the first ring again. Only called on the UI thread, and left for
+	 * endUpdate while a batch of updates is running. The outer rings keep
+	 * their geometry and stay open unless the entry that opened them is gone.
+	 */
+	private void pickUpEntries() {
+		List<RadialMenuItem> entries = publishedEntries.get();
+		if (entries == menuEntries || updateDepth > 0)
+			return;
+		if (searchIndex != null) {
+			updateSearchIndex(menuEntries, entries);
+		}
+		menuEntries = entries;
+		rootRing.invalidateLayout();
+		if (ringStack.size() > 1
+				&& !menuEntries.contains(ringStack.get(1).getParent())) {
+			closeOuterRings();
+		}
+		// The wedges are rebuilt in place, so the highlight may have moved
+		if (selectedLevel == 0) {
+			selected = null;
+		}
+		layoutRing(rootRing, 0);
+		invalidateRingLayer();
+	}
 
+	/**
+	 * Brings the search index up to date with new entries. Only the entries
+	 * that are gone are removed and only the new ones are added, the index
+	 * is not built again.
+	 * @param oldEntries - Entries the index was kept for.
+	 * @param newEntries - Entries picked up.
+	 */
+	private void updateSearchIndex(List<RadialMenuItem> oldEntries,
+			List<RadialMenuItem> newEntries) {
+		Map<RadialMenuItem, Boolean> kept = new IdentityHashMap<RadialMenuItem, Boolean>();
+		for (int i = 0; i < newEntries.size(); i++) {
+			kept.put(newEntries.get(i), Boolean.TRUE);
+		}
+		for (int i = 0; i < oldEntries.size(); i++) {
+			if (!kept.containsKey(oldEntries.get(i))) {
+				searchIndex.remove(oldEntries.get(i));
 			}
 		}
+		// Entries already indexed are skipped
+		for (int i = 0; i < newEntries.size(); i++) {
+			searchIndex.add(newEntries.get(i), null);
+		}
+	}
 
-		if (animationComplete == true) {
-			r2VariableSize = 0;
-			this.animateTextSize = textSize;
-			if (animation_direction == ANIMATE_IN) {
-				Wedge2Shown = false;
-			}
+	/**
+	 * Opens the ring holding the children of a wedge. Rings that were open
+	 * above the wedge are closed first. The geometry of the new ring comes
+	 * from the ring cache, and is only built the first time the ring opens
+	 * at this level or after the menu layout changed.
+	 * @param level - Ring level of the wedge.
+	 * @param index - Wedge index in the ring.
+	 */
+	private void openRing(int level, int index) {
+		removeRingsAbove(level);
+		RadialMenuRing parentRing = ringStack.get(level);
+		RadialMenuItem item = parentRing.getItem(index);
+		RadialMenuRing ring = ringCache.get(item);
+		if (ring == null) {
+			ring = new RadialMenuRing(item);
+			ringCache.put(item, ring);
 		}
+		ring.setUsageKey(RadialUsageStore.hashKey(parentRing.getUsageKey(),
+				item.getName()));
+		ring.setObserver(attached ? itemListener : null);
+		// Pushed before the layout, so children delivered right away find it
+		ring.setOpenedIndex(-1);
+		parentRing.setOpenedIndex(index);
+		ringStack.add(ring);
+		ringClosing = false;
+		ringStackVersion++;
+		ringAnimator.jumpTo(false);
+		layoutRing(ring, level + 1);
+		invalidateRingLayer();
+		if (ringClosing || ringStack.size() <= level + 1
+				|| ringStack.get(level + 1) != ring)
+			return; // Closed again by the layout, the item had no children
+		ringAnimator.open();
+	}
 
-		invalidate(); // re-draws the picture
+	/**
+	 * @param item - Item with children or a children provider.
+	 * @return True if the children are loaded and there are none, so there
+	 *         is no ring to open.
+	 */
+	private static boolean hasNoChildren(RadialMenuItem item) {
+		if (!item.areChildrenLoaded())
+			return false;
+		List<RadialMenuItem> children = item.getChildren();
+		return children == null || children.isEmpty();
 	}
 
-	private void determineWedges() {
+	/**
+	 * Closes every ring above a level. The ring right above it animates
+	 * closed, the ones further out are removed right away.
+	 * @param level - Level of the ring left on top.
+	 */
+	private void closeRingsAbove(int level) {
+		if (ringStack.size() - 1 <= level)
+			return;
+		removeRingsAbove(level + 1);
+		ringStack.get(level).setOpenedIndex(-1);
+		ringStack.get(level + 1).setOpenedIndex(-1);
+		ringClosing = true;
+		ringStackVersion++;
+		ringAnimator.close();
+	}
 
-		int entriesQty = menuEntries.size();
-		if (entriesQty > 0) {
-			wedgeQty = entriesQty;
-
-			float degSlice = 360 / wedgeQty;
-			float start_degSlice = 270 - (degSlice / 2);
-			// calculates where to put the images
-			double rSlice = (2 * Math.PI) / wedgeQty;
-			double rStart = (2 * Math.PI) * (0.75) - (rSlice / 2);
-
-			this.Wedges = new RadialMenuWedge[wedgeQty];
-			this.iconRect = new Rect[wedgeQty];
-
-			for (int i = 0; i < Wedges.length; i++) {
-				this.Wedges[i] = new RadialMenuWedge(xPosition, yPosition,
-						MinSize, MaxSize, (i * degSlice) + start_degSlice,
-						degSlice);
-				float xCenter = (float) (Math
-						.cos(((rSlice * i) + (rSlice * 0.5)) + rStart)
-						* (MaxSize + MinSize) / 2) + xPosition;
-				float yCenter = (float) (Math
-						.sin(((rSlice * i) + (rSlice * 0.5)) + rStart)
-						* (MaxSize + MinSize) / 2) + yPosition;
-
-				int h = MaxIconSize;
-				int w = MaxIconSize;
-				if (menuEntries.get(i).getIcon() != 0) {
-					Drawable drawable = getResources().getDrawable(
-							menuEntries.get(i).getIcon());
-					h = getIconSize(drawable.getIntrinsicHeight(), MinIconSize,
-							MaxIconSize);
-					w = getIconSize(drawable.getIntrinsicWidth(), MinIconSize,
-							MaxIconSize);
-				}
+	/**
+	 * Removes every ring above a level without animating.
+	 * @param level - Level of the ring left on top.
+	 */
+	private void removeRingsAbove(int level) {
+		boolean removed = false;
+		while (ringStack.size() - 1 > level) {
+			int top = ringStack.size() - 1;
+			RadialMenuRing ring = ringStack.remove(top);
+			ring.setOpenedIndex(-1);
+			if (!ringCache.containsValue(ring))
+				ring.setObserver(null);
+			if (ring == searchRing)
+				finishSearch();
+			sectorResolver.setRingVisible(RING_INNER + top, false);
+			if (selectedLevel == top)
+				selected = null;
+			ringStackVersion++;
+			removed = true;
+		}
+		// The closing ring is always the outermost one
+		if (removed && ringClosing) {
+			ringClosing = false;
+			ringAnimator.jumpTo(false);
+		}
+	}
 
-				this.iconRect[i] = new Rect((int) xCenter - w / 2,
-						(int) yCenter - h / 2, (int) xCenter + w / 2,
-						(int) yCenter + h / 2);
-			}
+	/**
+	 * Closes every outer ring right away, used when the entries they belong
+	 * to are changed.
+	 */
+	private void closeOuterRings() {
+		removeRingsAbove(0);
+		rootRing.setOpenedIndex(-1);
+		selected = null;
+		ringAnimator.jumpTo(false);
+		invalidateRingLayer();
+	}
 
-			invalidate(); // re-draws the picture
-		}
-	}
-
-	private void determineOuterWedges(RadialMenuItem entry) {
-
-		int entriesQty = entry.getChildren().size();
-		wedgeQty2 = entriesQty;
-
-		// Wedge 2
-		float degSlice2 = 360 / wedgeQty2;
-		float start_degSlice2 = 270 - (degSlice2 / 2);
-		// calculates where to put the images
-		double rSlice2 = (2 * Math.PI) / wedgeQty2;
-		double rStart2 = (2 * Math.PI) * (0.75) - (rSlice2 / 2);
-
-		this.Wedges2 = new RadialMenuWedge[wedgeQty2];
-		this.iconRect2 = new Rect[wedgeQty2];
-
-		for (int i = 0; i < Wedges2.length; i++) {
-			this.Wedges2[i] = new RadialMenuWedge(xPosition, yPosition,
-					r2MinSize, r2MaxSize, (i * degSlice2) + start_degSlice2,
-					degSlice2);
-			float xCenter = (float) (Math.cos(((rSlice2 * i) + (rSlice2 * 0.5))
-					+ rStart2)
-					* (r2MaxSize + r2MinSize) / 2)
-					+ xPosition;
-			float yCenter = (float) (Math.sin(((rSlice2 * i) + (rSlice2 * 0.5))
-					+ rStart2)
-					* (r2MaxSize + r2MinSize) / 2)
-					+ yPosition;
-
-			int h = MaxIconSize;
-			int w = MaxIconSize;
-			if (entry.getChildren().get(i).getIcon() != 0) {
-				Drawable drawable = getResources().getDrawable(
-						entry.getChildren().get(i).getIcon());
-				h = getIconSize(drawable.getIntrinsicHeight(), MinIconSize,
-						MaxIconSize);
-				w = getIconSize(drawable.getIntrinsicWidth(), MinIconSize,
-						MaxIconSize);
-			}
-			this.iconRect2[i] = new Rect((int) xCenter - w / 2, (int) yCenter
-					- h / 2, (int) xCenter + w / 2, (int) yCenter + h / 2);
+	/**
+	 * @return The search index, built from the menu entries the first time it
+	 *         is used and kept up to date as entries change.
+	 */
+	private RadialMenuSearchIndex getSearchIndex() {
+		pickUpEntries();
+		if (searchIndex == null) {
+			searchIndex = new RadialMenuSearchIndex();
+		} else if (!searchIndex.needsRebuild()) {
+			return searchIndex;
+		}
+		searchIndex.clear();
+		for (int i = 0; i < menuEntries.size(); i++) {
+			searchIndex.add(menuEntries.get(i), null);
+		}
+		return searchIndex;
+	}
+
+	/**
+	 * Restores the header once the search ring is gone.
+	 */
+	private void finishSearch() {
+		if (searchQuery != null) {
+			searchQuery = null;
+			headerString = savedHeader;
+			savedHeader = null;
+			determineHeaderBox();
 		}
-		this.wedge2Data = entry;
-		invalidate(); // re-draws the picture
+	}
+
+	private void determineCenterIcon() {
+		int h = MaxIconSize;
+		int w = MaxIconSize;
+		if (centerCircle != null && centerCircle.getIcon() != 0) {
+			RadialMenuIconCache.Icon icon = iconCache.get(getResources(),
+					centerCircle.getIcon());
+			h = icon.getHeight(MinIconSize, MaxIconSize);
+			w = icon.getWidth(MinIconSize, MaxIconSize);
+		}
+		centerIconRect.set(xPosition - w / 2, yPosition - h / 2, xPosition + w
+				/ 2, yPosition + h / 2);
+		invalidateRingLayer();
 	}
 
 	private void determineHeaderBox() {
+		if (headerString == null)
+			return;
+		paint.setTextSize(headerTextSize);
+		paint.getTextBounds(headerString, 0, headerString.length(),
+				this.textRect);
 		this.headerTextLeft = xPosition - this.textRect.width() / 2;
 		this.headerTextBottom = yPosition - (MaxSize) - headerBuffer
 				- this.textRect.bottom;
@@ -1014,7 +1415,7 @@ public class RadialMenuWidget extends View {
 						- this.textRect.height() - scalePX(3)),
 				(xPosition + (offset)),
 				(yPosition - (MaxSize) - headerBuffer + scalePX(3)));
-
+		invalidateRingLayer();
 	}
 
 	/******************************************************************************************************************************
@@ -1022,23 +1423,260 @@ public class RadialMenuWidget extends View {
 	 ******************************************************************************************************************************/
 	
 	/**
-	 * This method allows the user to add an array of menu items.
+	 * This method allows the user to add an array of menu items. Can be
+	 * called from any thread.
 	 * @param menuItems - List object of RadialMenuItem.
 	 * @return
 	 */
 	public void addMenuEntry(List<RadialMenuItem> menuItems) {
-		menuEntries.addAll(menuItems);
-		determineWedges();
+		synchronized (publishedEntries) {
+			List<RadialMenuItem> entries = new ArrayList<RadialMenuItem>(
+					publishedEntries.get());
+			entries.addAll(menuItems);
+			publishEntries(entries);
+		}
 	}
 	
 	/**
-	 *  This method allows the user to add a menu item.
+	 *  This method allows the user to add a menu item. Can be called from
+	 *  any thread. Every call copies the entries, so use editMenuEntries to
+	 *  add many items one by one.
 	 * @param menuItem - Object of RadialMenuItem.
 	 * @return
 	 */
 	public void addMenuEntry(RadialMenuItem menuItem) {
-		menuEntries.add(menuItem);
-		determineWedges();
+		synchronized (publishedEntries) {
+			List<RadialMenuItem> entries = new ArrayList<RadialMenuItem>(
+					publishedEntries.get());
+			entries.add(menuItem);
+			publishEntries(entries);
+		}
+	}
+
+	/**
+	 * This method allows the user to remove a menu item. Can be called from
+	 * any thread.
+	 * @param menuItem - Object of RadialMenuItem.
+	 * @return True if the item was part of the menu.
+	 */
+	public boolean removeMenuEntry(RadialMenuItem menuItem) {
+		synchronized (publishedEntries) {
+			List<RadialMenuItem> entries = new ArrayList<RadialMenuItem>(
+					publishedEntries.get());
+			if (!entries.remove(menuItem))
+				return false;
+			publishEntries(entries);
+			return true;
+		}
+	}
+
+	/**
+	 * This method allows the user to replace a menu item, keeping its place
+	 * in the menu. Can be called from any thread.
+	 * @param index - Position of the item to replace.
+	 * @param menuItem - Object of RadialMenuItem.
+	 * @return The replaced item.
+	 */
+	public RadialMenuItem replaceMenuEntry(int index, RadialMenuItem menuItem) {
+		synchronized (publishedEntries) {
+			List<RadialMenuItem> entries = new ArrayList<RadialMenuItem>(
+					publishedEntries.get());
+			RadialMenuItem old = entries.set(index, menuItem);
+			if (old != menuItem)
+				publishEntries(entries);
+			return old;
+		}
+	}
+
+	/**
+	 * This method allows the user to remove all the menu items. Can be called
+	 * from any thread.
+	 */
+	public void removeAllMenuEntries() {
+		synchronized (publishedEntries) {
+			publishEntries(new ArrayList<RadialMenuItem>());
+		}
+	}
+
+	/**
+	 * This method allows the user to make many changes to the menu items at
+	 * once. The entries are copied once, handed to the editor, and published
+	 * as a whole when it returns. Can be called from any thread, other
+	 * changes wait until the editor is done.
+	 * <strong> Usage </strong>
+	 * 
+	 * pieMenu.editMenuEntries(new RadialMenuWidget.MenuEntriesEditor() {
+	 *     public void edit(List&lt;RadialMenuItem&gt; entries) {
+	 *         for (Contact contact : contacts)
+	 *             entries.add(new RadialMenuItem(contact.id, contact.name));
+	 *     }
+	 * });
+	 * @param editor - Editor changing the entries.
+	 */
+	public void editMenuEntries(MenuEntriesEditor editor) {
+		synchronized (publishedEntries) {
+			List<RadialMenuItem> entries = new ArrayList<RadialMenuItem>(
+					publishedEntries.get());
+			editor.edit(entries);
+			publishEntries(entries);
+		}
+	}
+
+	/**
+	 * @return The menu entries as last published. The list cannot be changed
+	 *         and stays the same when entries are added or removed later.
+	 */
+	public List<RadialMenuItem> getMenuEntries() {
+		return publishedEntries.get();
+	}
+
+	/******************************************************************************************************************************
+	 * SEARCH METHODS
+	 ******************************************************************************************************************************/
+
+	/**
+	 * Searches the labels and names of the items on every level of the menu
+	 * and shows the best matches in a temporary ring. Pressing a match acts
+	 * like pressing the item in its own ring.
+	 * @param query - Start of the words to look for. Pass null or an empty
+	 *            query to end the search.
+	 */
+	public void search(String query) {
+		if (query == null || query.trim().length() == 0) {
+			closeSearch();
+			return;
+		}
+		List<RadialMenuItem> results = getSearchIndex().search(query,
+				MAX_SEARCH_RESULTS);
+		if (results.isEmpty()) {
+			results.add(noMatchItem);
+		}
+		searchItem.setMenuChildren(results);
+
+		if (ringStack.size() > 1 && ringStack.get(1) == searchRing
+				&& ringClosing == false) {
+			// Rings opened from the previous matches go away
+			removeRingsAbove(1);
+			searchRing.setOpenedIndex(-1);
+			layoutRing(searchRing, 1);
+		} else {
+			removeRingsAbove(0);
+			rootRing.setOpenedIndex(-1);
+			searchRing.setObserver(attached ? itemListener : null);
+			searchRing.setOpenedIndex(-1);
+			layoutRing(searchRing, 1);
+			ringStack.add(searchRing);
+			ringClosing = false;
+			ringStackVersion++;
+			ringAnimator.jumpTo(false);
+			ringAnimator.open();
+		}
+
+		// Shows the query in place of the header
+		if (searchQuery == null) {
+			savedHeader = headerString;
+		}
+		searchQuery = query;
+		headerString = query;
+		determineHeaderBox();
+		invalidateRingLayer();
+		invalidate();
+	}
+
+	/**
+	 * Closes the search ring and shows the header again.
+	 */
+	public void closeSearch() {
+		if (ringStack.size() > 1 && ringStack.get(1) == searchRing) {
+			closeRingsAbove(0);
+			invalidate();
+		} else {
+			finishSearch();
+		}
+	}
+
+	/**
+	 * @return The text searched for, or null if the search ring is not shown.
+	 */
+	public String getSearchQuery() {
+		return searchQuery;
+	}
+
+	/**
+	 * Looks up an item by the names of the items leading to it, for example
+	 * "Edit/Copy". Child items that were never loaded are not found.
+	 * @param path - Names joined with RadialMenuSearchIndex.PATH_SEPARATOR.
+	 * @return The item, or null if there is none.
+	 */
+	public RadialMenuItem findItemByPath(String path) {
+		return getSearchIndex().findItemByPath(path);
+	}
+
+	/**
+	 * <strong> Optional </strong>
+	 * Lets the keys typed while the menu is shown search the menu.
+	 * @param enabled - True to search with typed keys.
+	 */
+	public void setSearchEnabled(boolean enabled) {
+		this.searchEnabled = enabled;
+		setFocusable(enabled);
+		setFocusableInTouchMode(enabled);
+		if (enabled == true) {
+			requestFocus();
+		}
+	}
+
+	@Override
+	public boolean onKeyDown(int keyCode, KeyEvent event) {
+		if (searchEnabled == true) {
+			String query = searchQuery != null ? searchQuery : "";
+			if (keyCode == KeyEvent.KEYCODE_DEL) {
+				if (query.length() > 0) {
+					search(query.substring(0, query.length() - 1));
+				}
+				return true;
+			}
+			int unicodeChar = event.getUnicodeChar();
+			if (unicodeChar != 0 && !Character.isISOControl(unicodeChar)) {
+				search(query + (char) unicodeChar);
+				return true;
+			}
+		}
+		return super.onKeyDown(keyCode, event);
+	}
+
+	/**
+	 * Starts a batch of updates. Entries added, removed or replaced and ring
+	 * sizes changed are not picked up until the matching endUpdate call, so
+	 * the wedges are built once for the whole batch. Batches can be nested.
+	 * Must be called on the UI thread, other threads batch their changes
+	 * with editMenuEntries.
+	 * <strong> Usage </strong>
+	 * 
+	 * pieMenu.beginUpdate();
+	 * pieMenu.addMenuEntry(menuItem);
+	 * pieMenu.setInnerRingRadius(30, 90);
+	 * pieMenu.endUpdate();
+	 */
+	public void beginUpdate() {
+		updateDepth++;
+	}
+
+	/**
+	 * Ends a batch of updates started with beginUpdate and lays out the menu
+	 * once if anything changed.
+	 */
+	public void endUpdate() {
+		if (updateDepth == 0)
+			throw new IllegalStateException("endUpdate called without beginUpdate");
+		updateDepth--;
+		if (updateDepth == 0 && wedgeLayoutPending) {
+			wedgeLayoutPending = false;
+			determineWedges();
+		} else if (updateDepth == 0) {
+			pickUpEntries();
+			invalidate();
+		}
 	}
 	
 	/******************************************************************************************************************************
@@ -1052,7 +1690,18 @@ public class RadialMenuWidget extends View {
 	 * @return
 	 */
 	public void setCenterCircle(RadialMenuItem menuItem) {
+		if (attached == true) {
+			if (centerCircle != null)
+				centerCircle.removeItemListener(itemListener);
+			if (menuItem != null)
+				menuItem.addItemListener(itemListener);
+		}
 		centerCircle = menuItem;
+		if (updateDepth > 0) {
+			wedgeLayoutPending = true;
+		} else {
+			determineCenterIcon();
+		}
 	}
 
 	/**
@@ -1064,7 +1713,8 @@ public class RadialMenuWidget extends View {
 	public void setInnerRingRadius(int InnerRadius, int OuterRadius) {
 		this.MinSize = scalePX(InnerRadius);
 		this.MaxSize = scalePX(OuterRadius);
-		determineWedges();
+		labelGeneration++;
+		requestWedgeLayout();
 	}
 
 	/**
@@ -1076,7 +1726,8 @@ public class RadialMenuWidget extends View {
 	public void setOuterRingRadius(int InnerRadius, int OuterRadius) {
 		this.r2MinSize = scalePX(InnerRadius);
 		this.r2MaxSize = scalePX(OuterRadius);
-		determineWedges();
+		labelGeneration++;
+		requestWedgeLayout();
 	}
 
 	/**
@@ -1086,7 +1737,8 @@ public class RadialMenuWidget extends View {
 	 */
 	public void setCenterCircleRadius(int centerRadius) {
 		this.cRadius = scalePX(centerRadius);
-		determineWedges();
+		labelGeneration++;
+		requestWedgeLayout();
 	}
 
 	/**
@@ -1095,7 +1747,8 @@ public class RadialMenuWidget extends View {
 	 */
 	public void setTextSize(int TextSize) {
 		this.textSize = scalePX(TextSize);
-		this.animateTextSize = this.textSize;
+		labelGeneration++;
+		invalidateRingLayer();
 	}
 
 	/**
@@ -1106,7 +1759,44 @@ public class RadialMenuWidget extends View {
 	public void setIconSize(int minIconSize, int maxIconSize) {
 		this.MinIconSize = scalePX(minIconSize);
 		this.MaxIconSize = scalePX(maxIconSize);
-		determineWedges();
+		labelGeneration++;
+		requestWedgeLayout();
+	}
+
+	/**
+	 * <strong> Optional </strong>
+	 * Set the item shown in a ring while the children of its parent are being
+	 * loaded by a RadialMenuChildrenProvider.
+	 * @param menuItem - Object of RadialMenuItem.
+	 */
+	public void setLoadingItem(RadialMenuItem menuItem) {
+		this.loadingItem = menuItem;
+		this.loadingItems = Collections.singletonList(menuItem);
+		ringLayoutVersion++;
+	}
+
+	/**
+	 * <strong> Optional </strong>
+	 * Set a store counting how often the items are pressed. The most used
+	 * items of every ring are then shown nearest the top of the ring. The
+	 * order is updated when a ring is laid out or opened, never under the
+	 * finger. Items are told apart by their name.
+	 * @param store - Usage store, or null to keep the order the items were added in.
+	 */
+	public void setUsageStore(RadialUsageStore store) {
+		this.usageStore = store;
+		requestWedgeLayout();
+	}
+
+	/**
+	 * <strong> Optional </strong>
+	 * Set how the outer ring opens and closes.
+	 * @param duration - Time in milliseconds a full open or close takes.
+	 * @param interpolator - Easing of the animation.
+	 */
+	public void setOuterRingAnimation(long duration, Interpolator interpolator) {
+		ringAnimator.setDuration(duration);
+		ringAnimator.setInterpolator(interpolator);
 	}
 
 	/**
@@ -1117,7 +1807,7 @@ public class RadialMenuWidget extends View {
 	public void setCenterLocation(int x, int y) {
 		this.xPosition = x;
 		this.yPosition = y;
-		determineWedges();
+		requestWedgeLayout();
 		helper.onOpenAnimation(this, xPosition, yPosition, xSource, ySource);
 	}
 
@@ -1158,6 +1848,7 @@ public class RadialMenuWidget extends View {
 	public void setInnerRingColor(int color, int alpha) {
 		this.defaultColor = color;
 		this.defaultAlpha = alpha;
+		invalidateRingLayer();
 	}
 	
 	/**
@@ -1168,6 +1859,7 @@ public class RadialMenuWidget extends View {
 	public void setOuterRingColor(int color, int alpha) {
 		this.wedge2Color = color;
 		this.wedge2Alpha = alpha;
+		invalidateRingLayer();
 	}
 
 	/**
@@ -1178,6 +1870,7 @@ public class RadialMenuWidget extends View {
 	public void setOutlineColor(int color, int alpha) {
 		this.outlineColor = color;
 		this.outlineAlpha = alpha;
+		invalidateRingLayer();
 	}
 
 	/**
@@ -1188,6 +1881,7 @@ public class RadialMenuWidget extends View {
 	public void setSelectedColor(int color, int alpha) {
 		this.selectedColor = color;
 		this.selectedAlpha = alpha;
+		invalidateRingLayer();
 	}
 
 	/**
@@ -1198,6 +1892,7 @@ public class RadialMenuWidget extends View {
 	public void setDisabledColor(int color, int alpha) {
 		this.disabledColor = color;
 		this.disabledAlpha = alpha;
+		invalidateRingLayer();
 	}
 
 	/**
@@ -1208,6 +1903,28 @@ public class RadialMenuWidget extends View {
 	public void setTextColor(int color, int alpha) {
 		this.textColor = color;
 		this.textAlpha = alpha;
+		invalidateRingLayer();
+	}
+
+	/**
+	 * Set the menu item badge colors.
+	 * @param color - Badge color.
+	 * @param textColor - Badge count color.
+	 */
+	public void setBadgeColors(int color, int textColor) {
+		this.badgeColor = color;
+		this.badgeTextColor = textColor;
+		invalidateRingLayer();
+	}
+
+	/**
+	 * Set the menu item badge text size.
+	 * @param TextSize - Text size of the badge counts.
+	 */
+	public void setBadgeTextSize(int TextSize) {
+		this.badgeTextSize = scalePX(TextSize);
+		this.badgeRadius = badgeTextSize * 4 / 5;
+		invalidateRingLayer();
 	}
 
 	/**
@@ -1217,9 +1934,14 @@ public class RadialMenuWidget extends View {
 	 * @param TextSize -  Text size.
 	 */
 	public void setHeader(String header, int TextSize) {
-		this.headerString = header;
 		this.headerTextSize = scalePX(TextSize);
-		HeaderBoxBounded = false;
+		if (searchQuery != null) {
+			// Shown once the search ends
+			this.savedHeader = header;
+			header = searchQuery;
+		}
+		this.headerString = header;
+		determineHeaderBox();
 	}
 
 	/**
@@ -1236,8 +1958,94 @@ public class RadialMenuWidget extends View {
 		this.headerTextAlpha = TextAlpha;
 		this.headerBackgroundColor = BgColor;
 		this.headerBackgroundAlpha = BgAlpha;
+		invalidateRingLayer();
 	}
 	
+	/**
+	 * <strong> Optional </strong>
+	 * Draws the resting rings once into a cached bitmap. Each frame then only
+	 * draws that bitmap and the highlighted wedge. The bitmap is drawn again
+	 * when the items, colors or geometry change. The highlighted wedge is
+	 * painted over the resting one, so translucent highlight colors show the
+	 * resting color through them.
+	 * @param enabled - True to use the cached layer.
+	 */
+	public void setLayerCacheEnabled(boolean enabled) {
+		this.layerCacheEnabled = enabled;
+		if (enabled == false) {
+			releaseRingLayer();
+		}
+		invalidate();
+	}
+
+	/**
+	 * @return True if the resting rings are drawn from a cached bitmap.
+	 */
+	public boolean isLayerCacheEnabled() {
+		return layerCacheEnabled;
+	}
+
+	/**
+	 * <strong> Optional </strong>
+	 * Opens the menu from a view as a marking menu. Holding a press on the
+	 * view for the delay shows the menu centered where the press is held. A
+	 * quick stroke made before then presses the item of the first ring lying
+	 * in its direction, without the menu being shown or drawn.
+	 * The touch listener of the view is left alone, it passes its events to
+	 * dispatchMarkingTouch.
+	 * <strong> Usage </strong>
+	 * 
+	 * pieMenu.setMarkingMenu(button, 300);
+	 * button.setOnTouchListener(new View.OnTouchListener() {
+	 *     public boolean onTouch(View v, MotionEvent event) {
+	 *         return pieMenu.dispatchMarkingTouch(event);
+	 *     }
+	 * });
+	 * @param anchor - View pressed to open the menu, or null to stop.
+	 * @param holdDelay - Time in milliseconds the press is held before the menu shows.
+	 */
+	public void setMarkingMenu(View anchor, long holdDelay) {
+		if (markingAnchor != null)
+			markingAnchor.removeCallbacks(markingShow);
+		this.markingAnchor = anchor;
+		this.markingDelay = holdDelay;
+		this.markingPending = false;
+	}
+
+	/**
+	 * Follows a touch on the marking menu anchor. Call it with every touch
+	 * event of the anchor, from its touch listener or onTouchEvent.
+	 * @param e - Touch event of the anchor, in its coordinates.
+	 * @return True if the event was used, false if no marking menu is set.
+	 */
+	public boolean dispatchMarkingTouch(MotionEvent e) {
+		View anchor = markingAnchor;
+		if (anchor == null)
+			return false;
+		int state = e.getAction() & MotionEvent.ACTION_MASK;
+		if (state == MotionEvent.ACTION_DOWN) {
+			markingX = e.getX();
+			markingY = e.getY();
+			markingScreenX = e.getRawX();
+			markingScreenY = e.getRawY();
+			markingPending = true;
+			anchor.removeCallbacks(markingShow);
+			anchor.postDelayed(markingShow, markingDelay);
+		} else if (state == MotionEvent.ACTION_MOVE && markingPending) {
+			markingScreenX = e.getRawX();
+			markingScreenY = e.getRawY();
+		} else if (state == MotionEvent.ACTION_UP && markingPending) {
+			// The stroke was made before the menu showed
+			anchor.removeCallbacks(markingShow);
+			markingPending = false;
+			activateMarkedItem(e.getX(), e.getY());
+		} else if (state == MotionEvent.ACTION_CANCEL) {
+			anchor.removeCallbacks(markingShow);
+			markingPending = false;
+		}
+		return true;
+	}
+
 	/**
 	 * Shows the radial menu widget.
 	 * @param anchor - View to be anchored to.
@@ -1265,4 +2073,13 @@ public class RadialMenuWidget extends View {
 		if(mWindow != null)
 			mWindow.dismiss();
 	}
+
+	public interface MenuEntriesEditor {
+		/**
+		 * Called with a copy of the menu entries to change. The copy is
+		 * published when this returns, and must not be kept.
+		 * @param entries - Menu entries, in menu order.
+		 */
+		public void edit(List<RadialMenuItem> entries);
+	}
 }
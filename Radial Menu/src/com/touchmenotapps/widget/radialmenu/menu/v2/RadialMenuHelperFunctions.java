@@ -22,7 +22,9 @@ package com.touchmenotapps.widget.radialmenu.menu.v2;
  * It contains certain functions that are used in creating the radial menu.
  * 
  * @author Arindam Nath (strider2023@gmail.com)
+ * @deprecated The menu now resolves touches through RadialSectorResolver.
  */
+@Deprecated
 public class RadialMenuHelperFunctions {
 
 	/**
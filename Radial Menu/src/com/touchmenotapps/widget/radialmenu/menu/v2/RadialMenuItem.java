@@ -27,6 +27,8 @@ public class RadialMenuItem {
 	private String mMenuID;
 	private String mMenuName;
 	private OnRadailMenuClick mCallback;
+	private float mWeight = 1;
+	private boolean mHollow;
 	
 	/**
 	 * @param mMenuID
@@ -35,6 +37,7 @@ public class RadialMenuItem {
 	public RadialMenuItem(String mMenuID, String mMenuName) {
 		this.mMenuID = mMenuID;
 		this.mMenuName = mMenuName;
+		this.mHollow = RadialMenuRenderer.RADIAL_NO_TEXT.equals(mMenuName);
 	}
 
 	/**
@@ -51,6 +54,31 @@ public class RadialMenuItem {
 		return mMenuName;
 	}
 	
+	/**
+	 * @return true if the item is named RadialMenuRenderer.RADIAL_NO_TEXT,
+	 *         leaving an empty gap in the ring
+	 */
+	public boolean isHollow() {
+		return mHollow;
+	}
+	
+	/**
+	 * @return the mWeight
+	 */
+	public float getWeight() {
+		return mWeight;
+	}
+	
+	/**
+	 * Set how much of the ring the item takes, relative to the other items.
+	 * @param mWeight the mWeight to set, greater than 0. The default is 1.
+	 */
+	public void setWeight(float mWeight) {
+		if (!(mWeight > 0) || Float.isInfinite(mWeight))
+			throw new IllegalArgumentException("Invalid weight: " + mWeight);
+		this.mWeight = mWeight;
+	}
+	
 	/**
 	 * 
 	 * @param onRadailMenuClick
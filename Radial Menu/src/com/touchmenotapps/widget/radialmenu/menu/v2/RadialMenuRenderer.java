@@ -42,6 +42,10 @@ public class RadialMenuRenderer {
 	
 	private float mRadius = 60;
 	
+	private int mVisibleItemCount = 0;
+	
+	private long mMarkingMenuDelay = 0;
+	
 	private int mMenuBackgroundColor = 0x80444444;
 	
 	private int mMenuSelectedColor = 0x8033b5e5;
@@ -111,6 +115,41 @@ public class RadialMenuRenderer {
 		return mRadius;
 	}
 
+	/**
+	 * @return the mVisibleItemCount
+	 */
+	public int getVisibleItemCount() {
+		return mVisibleItemCount;
+	}
+
+	/**
+	 * Show only this many items at a time when the menu has more. The ring
+	 * is then turned by dragging around outside it, and the item weights are
+	 * not used. Set before calling renderView().
+	 * @param mVisibleItemCount the mVisibleItemCount to set, 0 to show every item
+	 */
+	public void setVisibleItemCount(int mVisibleItemCount) {
+		this.mVisibleItemCount = mVisibleItemCount;
+	}
+
+	/**
+	 * @return the mMarkingMenuDelay
+	 */
+	public long getMarkingMenuDelay() {
+		return mMarkingMenuDelay;
+	}
+
+	/**
+	 * Use the menu as a marking menu. The menu only shows once the touch is
+	 * held for this long, and a quick stroke made before then picks the item
+	 * lying in its direction without the menu ever being drawn. Set before
+	 * calling renderView().
+	 * @param mMarkingMenuDelay the mMarkingMenuDelay to set in milliseconds, 0 to show the menu at once
+	 */
+	public void setMarkingMenuDelay(long mMarkingMenuDelay) {
+		this.mMarkingMenuDelay = mMarkingMenuDelay;
+	}
+
 	/**
 	 * @return the mMenuBackgroundColor
 	 */
@@ -23,11 +23,25 @@ import android.content.Context;
 import android.graphics.Canvas;
 import android.graphics.Paint;
 import android.graphics.Path;
+import android.graphics.Rect;
 import android.graphics.RectF;
 import android.view.MotionEvent;
+import android.view.VelocityTracker;
 import android.view.View;
+import android.view.ViewConfiguration;
+import android.widget.Scroller;
+
+import com.touchmenotapps.widget.radialmenu.RadialSectorResolver;
+import com.touchmenotapps.widget.radialmenu.RadialStrokeRecognizer;
 
 /**
+ * Draws the ring of menu items around the touch point and resolves the item
+ * the finger is released on.
+ * 
+ * With a visible item count set on the renderer, a menu with more items than
+ * that only shows a window of equal sectors at a time. Dragging outside the
+ * ring turns the window, and releasing there leaves the menu open while the
+ * window flings on. Only the sectors in the window are laid out and drawn.
  * 
  * @author Arindam Nath (strider2023@gmail.com)
  * TODO To add in icons
@@ -49,8 +63,6 @@ public class RadialMenuView extends View {
 	int selected = -1;
 	
 	int lastE = -1;//last event, used to prevent excessive redrawing
-	
-	float[] endTouch;
 
 	private Paint mBgPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
 	
@@ -60,7 +72,94 @@ public class RadialMenuView extends View {
 
 	private Paint mBorderPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
 	
-	private RadialMenuHelperFunctions mHelperFunctions;
+	private RadialSectorResolver mSectorResolver = new RadialSectorResolver();
+	
+	private float[] mSectorWeights = new float[0];
+	
+	private float[] mSectorAngles = new float[1];//sector boundaries, one more than the items
+	
+	private int mSectorCount = -1;
+	
+	private int mVisibleItems;//sectors shown at a time, 0 shows every item
+	
+	private float mScrollAngle = 0;//rotation of the items in the window
+	
+	private Scroller mScroller;
+	
+	private VelocityTracker mVelocityTracker;
+	
+	private int mMinFlingVelocity;
+	
+	private boolean mScrolling = false;//the finger is turning the window
+	
+	private boolean mParked = false;//the menu stays open after a turn
+	
+	private float mLastTouchAngle;//degrees, from 0 at the right going clockwise
+	
+	private float mLastTouchPseudo;//pseudo angle of the last sample around the ring
+	
+	private float mTurnX;//last sample of the turn, relative to the center
+	
+	private float mTurnY;
+	
+	private int mTurnWraps = 0;//times the turn crossed the right since mLastTouchAngle
+	
+	private boolean mTurnPending = false;//samples not converted to degrees yet
+	
+	private long mMarkingDelay;//hold before the menu shows, 0 shows it at once
+	
+	private boolean mMarking = false;//pressed, the menu not shown yet
+	
+	private Runnable mShowMenu = new Runnable() {
+		@Override
+		public void run() {
+			mMarking = false;
+			setVisibility(View.VISIBLE);
+			invalidate();
+		}
+	};
+	
+	private int mWindowFirst = 0;//position of the first sector shown
+	
+	private int mWindowCount = 0;
+	
+	private float[] mWindowAngles = mSectorAngles;//boundaries of the sectors shown
+	
+	private float mWindowScroll = Float.NaN;
+	
+	private int mWindowTotal = -1;
+	
+	private int mWindowVersion = 0;//bumped when the sectors shown change
+	
+	private int mResolverVersion = -1;
+	
+	private RectF mDirtyBounds = new RectF();
+	
+	private RectF mArcRect = new RectF();
+	
+	private RectF mInnerRect = new RectF();
+	
+	private Path[] mLabelPaths = new Path[0];//label path of every sector shown
+	
+	private Path[] mSegmentPaths = new Path[0];//fill of every sector shown
+	
+	private boolean[] mSegmentHollow = new boolean[0];
+	
+	private Path mBackgroundPath = new Path();//fill of the sectors not selected
+	
+	private Path mBorderPath = new Path();//separators and borders of the whole ring
+	
+	private int mSelectedSegment = -1;//sector drawn with the selected paint
+	
+	private float mSegmentX = Float.NaN;//center the paths were built for
+	
+	private float mSegmentY = Float.NaN;
+	
+	private int mSegmentVersion = -1;
+	
+	private Rect mDirtyRect = new Rect();
+	
+	private Rect mSectorRect = new Rect();
 	
 	/**
 	 * 
@@ -69,11 +168,14 @@ public class RadialMenuView extends View {
 	 */
 	public RadialMenuView(Context context, RadialMenuRenderer renderer) {
 		super(context);
-		mHelperFunctions = new RadialMenuHelperFunctions();
 		mRadialMenuContent = renderer.getRadialMenuContent();
 		alt = renderer.isAlt();
 		mThickness = renderer.getMenuThickness();
 		mRadius = renderer.getRadius();
+		mVisibleItems = renderer.getVisibleItemCount();
+		mMarkingDelay = renderer.getMarkingMenuDelay();
+		mScroller = new Scroller(context);
+		mMinFlingVelocity = ViewConfiguration.get(context).getScaledMinimumFlingVelocity();
 		setVisibility(GONE);
 		initSetPaint(renderer);
 	}
@@ -83,17 +185,15 @@ public class RadialMenuView extends View {
 	 * @param renderer
 	 */
 	private void initSetPaint(RadialMenuRenderer renderer) {
+		//the sectors and borders are filled paths built in layoutSegments()
 		mBgPaint.setColor(renderer.getMenuBackgroundColor());
-		mBgPaint.setStrokeWidth(renderer.getMenuThickness());
-		mBgPaint.setStyle(Paint.Style.STROKE);
+		mBgPaint.setStyle(Paint.Style.FILL);
 
 		mSelectedPaint.setColor(renderer.getMenuSelectedColor());
-		mSelectedPaint.setStrokeWidth(renderer.getMenuThickness());
-		mSelectedPaint.setStyle(Paint.Style.STROKE);
+		mSelectedPaint.setStyle(Paint.Style.FILL);
 
 		mBorderPaint.setColor(renderer.getMenuBorderColor());
-		mBorderPaint.setStrokeWidth(renderer.getMenuThickness());
-		mBorderPaint.setStyle(Paint.Style.STROKE);
+		mBorderPaint.setStyle(Paint.Style.FILL);
 
 		mTextPaint.setColor(renderer.getMenuTextColor());
 		mTextPaint.setTextSize((float) (renderer.getMenuThickness() / 2));
@@ -119,69 +219,387 @@ public class RadialMenuView extends View {
 	public void onDraw(Canvas canvas) {
 		//Fixes drawing off screen
 		setLoc(mWidth, mHeight);
-		final RectF rect = new RectF();
-		rect.set(mWidth - mRadius, mHeight - mRadius, mWidth + mRadius, mHeight + mRadius);
-		int tot = mRadialMenuContent.size();
+		//only the sectors in the window are drawn
+		layoutWindow();
+		layoutSegments();
 
-		mBorderPaint.setStrokeWidth(mThickness);
-		//draws back of radial first
+		//draws back of radial first, the selected sector over the gap left for it
+		canvas.drawPath(mBackgroundPath, mBgPaint);
+		if (mSelectedSegment != -1)
+			canvas.drawPath(mSegmentPaths[mSelectedSegment], mSelectedPaint);
+
+		//draws text
+		for (int counter = 0; counter < mWindowCount; counter++) {
+			RadialMenuItem item = mRadialMenuContent.get(getWindowItem(counter));
+			if (!item.isHollow())
+				canvas.drawTextOnPath(item.getMenuName(), mLabelPaths[counter], 0, (alt ? +mThickness / 8 : -mThickness / 8), mTextPaint);
+		}
+
+		//draws separators and outer and inner boarders at once
+		canvas.drawPath(mBorderPath, mBorderPaint);
+	}
+
+	/**
+	 * Sizes the sectors by the weights of the items, the first one starting
+	 * at the top of the ring (or centered on it in alt mode). Only computed
+	 * again when the items or their weights change.
+	 * @return The sector boundaries, item i lies between entries i and i + 1.
+	 */
+	private float[] layoutSectors() {
+		int tot = mRadialMenuContent.size();
+		boolean changed = tot != mSectorCount;
+		if (mSectorWeights.length < tot) {
+			mSectorWeights = new float[tot];
+			mSectorAngles = new float[tot + 1];
+			changed = true;
+		}
 		for (int counter = 0; counter < tot; counter++) {
-			if (!mRadialMenuContent.get(counter).equals(RadialMenuRenderer.RADIAL_NO_TEXT))
-				if (alt) 
-					canvas.drawArc(rect, (float) (360 / tot * counter - 90 - 360 / tot / 2), (float) (360 / tot), false, (selected == counter ? mSelectedPaint : mBgPaint));
-				else 
-					canvas.drawArc(rect, (float) (360 / tot * counter - 90), (float) (360 / tot), false, (selected == counter ? mSelectedPaint : mBgPaint));
+			float weight = mRadialMenuContent.get(counter).getWeight();
+			if (weight != mSectorWeights[counter]) {
+				mSectorWeights[counter] = weight;
+				changed = true;
+			}
 		}
+		if (changed) {
+			mSectorCount = tot;
+			float start = -90;
+			if (alt && tot > 0) {
+				float total = 0;
+				for (int counter = 0; counter < tot; counter++)
+					total += mSectorWeights[counter];
+				start -= 180 * mSectorWeights[0] / total;
+			}
+			RadialSectorResolver.divideArc(start, 360, mSectorWeights, tot, mSectorAngles);
+			mWindowVersion++;
+		}
+		return mSectorAngles;
+	}
 
-		//draws text
+	/**
+	 * Keeps the paths the ring is drawn with: the fill of every sector, the
+	 * arc every label is drawn along and one path holding all the separators
+	 * and borders. They are only built again once the menu moves or the
+	 * sectors shown change, the radius and thickness being fixed. The
+	 * background leaves out the selected sector, and is put together again
+	 * from the sector fills when the selection moves.
+	 */
+	private void layoutSegments() {
+		int tot = mWindowCount;
+		boolean changed = mSegmentVersion != mWindowVersion || mSegmentX != mWidth || mSegmentY != mHeight;
+		if (mSegmentPaths.length < tot) {
+			mLabelPaths = grow(mLabelPaths, tot);
+			mSegmentPaths = grow(mSegmentPaths, tot);
+			mSegmentHollow = new boolean[tot];
+			changed = true;
+		}
 		for (int counter = 0; counter < tot; counter++) {
-			if (!mRadialMenuContent.get(counter).equals(RadialMenuRenderer.RADIAL_NO_TEXT)) {
-				Path arc = new Path();
-				if (alt) {
-					arc.addArc(rect, (float) (360 / tot * counter - 90 - 360 / tot / 2) + 10, (float) (360 / tot) - 10);
-					canvas.drawTextOnPath(mRadialMenuContent.get(counter).getMenuName(), arc, 0, +mThickness / 8, mTextPaint);
-				} else {
-					arc.addArc(rect, (float) (360 / tot * counter - 90) + 10, (float) (360 / tot) - 10);
-					canvas.drawTextOnPath(mRadialMenuContent.get(counter).getMenuName(), arc, 0, -mThickness / 8, mTextPaint);
-				}
+			boolean hollow = mRadialMenuContent.get(getWindowItem(counter)).isHollow();
+			if (hollow != mSegmentHollow[counter]) {
+				mSegmentHollow[counter] = hollow;
+				changed = true;
 			}
 		}
+		if (changed) {
+			buildSegments();
+			mSegmentVersion = mWindowVersion;
+			mSegmentX = mWidth;
+			mSegmentY = mHeight;
+		}
 
-		//draws separators between each option
-		if (tot > 1)
+		int selectedSegment = -1;
+		for (int counter = 0; selected != -1 && counter < tot; counter++) {
+			if (getWindowItem(counter) == selected && !mSegmentHollow[counter])
+				selectedSegment = counter;
+		}
+		if (changed || selectedSegment != mSelectedSegment) {
+			mBackgroundPath.rewind();
 			for (int counter = 0; counter < tot; counter++) {
-				if (!mRadialMenuContent.get(counter).equals(RadialMenuRenderer.RADIAL_NO_TEXT))
-					if (alt) {
-						canvas.drawArc(rect, (float) (360 / tot * counter - 91 - 360 / tot / 2), 2, false, mBorderPaint);
-						canvas.drawArc(rect, (float) (360 / tot * (counter + 1) - 91 - 360 / tot / 2), 2, false, mBorderPaint);
-					} else {
-						canvas.drawArc(rect, (float) (360 / tot * counter - 91), 2, false, mBorderPaint);
-						canvas.drawArc(rect, (float) (360 / tot * (counter + 1) - 91), 2, false, mBorderPaint);
-					}
+				if (!mSegmentHollow[counter] && counter != selectedSegment)
+					mBackgroundPath.addPath(mSegmentPaths[counter]);
 			}
+			mSelectedSegment = selectedSegment;
+		}
+	}
 
-		//draws outer and inner boarders
-		mBorderPaint.setStrokeWidth(2);
-		rect.set(mWidth - mRadius - mThickness / 2, mHeight - mRadius - mThickness / 2, mWidth + mRadius + mThickness / 2, mHeight + mRadius + mThickness / 2);
+	private void buildSegments() {
+		int tot = mWindowCount;
+		float[] angles = mWindowAngles;
+		float outer = mRadius + mThickness / 2;
+		float inner = mRadius - mThickness / 2;
 
+		setCircle(mArcRect, mRadius);
 		for (int counter = 0; counter < tot; counter++) {
-			if (!mRadialMenuContent.get(counter).equals(RadialMenuRenderer.RADIAL_NO_TEXT))
-				if (alt) {
-					canvas.drawArc(rect, (float) (360 / tot * counter - 91 - 360 / tot / 2), (float) (360 / tot) + 2, false, mBorderPaint);
-				} else {
-					canvas.drawArc(rect, (float) (360 / tot * counter - 91), (float) (360 / tot) + 2, false, mBorderPaint);
-				}
+			mLabelPaths[counter].rewind();
+			mLabelPaths[counter].addArc(mArcRect, angles[counter] + 10, angles[counter + 1] - angles[counter] - 10);
 		}
 
-		rect.set(mWidth - mRadius + mThickness / 2, mHeight - mRadius + mThickness / 2, mWidth + mRadius - mThickness / 2, mHeight + mRadius - mThickness / 2);
-
+		setCircle(mArcRect, outer);
+		setCircle(mInnerRect, inner);
 		for (int counter = 0; counter < tot; counter++) {
-			if (!mRadialMenuContent.get(counter).equals(RadialMenuRenderer.RADIAL_NO_TEXT))
-				if (alt) {
-					canvas.drawArc(rect, (float) (360 / tot * counter - 91 - 360 / tot / 2), (float) (360 / tot) + 1, false, mBorderPaint);
-				} else {
-					canvas.drawArc(rect, (float) (360 / tot * counter - 91), (float) (360 / tot) + 1, false, mBorderPaint);
-				}
+			mSegmentPaths[counter].rewind();
+			addRingSector(mSegmentPaths[counter], angles[counter], angles[counter + 1] - angles[counter]);
+		}
+
+		mBorderPath.rewind();
+		//one separator per boundary, shared by the sectors on both sides
+		if (tot > 1)
+			for (int counter = 0; counter < tot; counter++) {
+				if (!mSegmentHollow[counter] || !mSegmentHollow[(counter + tot - 1) % tot])
+					addRingSector(mBorderPath, angles[counter] - 1, 2);
+			}
+		setCircle(mArcRect, outer + 1);
+		setCircle(mInnerRect, outer - 1);
+		addBorderRuns();
+		setCircle(mArcRect, inner + 1);
+		setCircle(mInnerRect, inner - 1);
+		addBorderRuns();
+	}
+
+	/**
+	 * Adds a border arc along every run of sectors that are not hollow,
+	 * between mInnerRect and mArcRect.
+	 */
+	private void addBorderRuns() {
+		float[] angles = mWindowAngles;
+		for (int counter = 0; counter < mWindowCount; counter++) {
+			if (mSegmentHollow[counter])
+				continue;
+			int end = counter;
+			while (end + 1 < mWindowCount && !mSegmentHollow[end + 1])
+				end++;
+			float sweep = angles[end + 1] - angles[counter];
+			addRingSector(mBorderPath, angles[counter] - 1, sweep >= 360 ? 360 : sweep + 2);
+			counter = end;
+		}
+	}
+
+	/**
+	 * Adds the part of the ring between mInnerRect and mArcRect that lies
+	 * within the given angles, as a clockwise outline.
+	 * @param path
+	 * @param start
+	 * @param sweep
+	 */
+	private void addRingSector(Path path, float start, float sweep) {
+		if (sweep >= 360) {
+			//the inner circle goes the other way to leave the middle empty
+			path.addCircle(mWidth, mHeight, mArcRect.width() / 2, Path.Direction.CW);
+			path.addCircle(mWidth, mHeight, mInnerRect.width() / 2, Path.Direction.CCW);
+			return;
+		}
+		path.arcTo(mArcRect, start, sweep, true);
+		path.arcTo(mInnerRect, start + sweep, -sweep);
+		path.close();
+	}
+
+	private void setCircle(RectF rect, float radius) {
+		rect.set(mWidth - radius, mHeight - radius, mWidth + radius, mHeight + radius);
+	}
+
+	private static Path[] grow(Path[] paths, int size) {
+		Path[] grown = new Path[size];
+		System.arraycopy(paths, 0, grown, 0, paths.length);
+		for (int counter = paths.length; counter < size; counter++)
+			grown[counter] = new Path();
+		return grown;
+	}
+
+	/**
+	 * @return True if only a window of the items is shown.
+	 */
+	private boolean isVirtualized() {
+		return mVisibleItems > 0 && mRadialMenuContent.size() > mVisibleItems;
+	}
+
+	/**
+	 * Lays out the sectors shown. Without a window these are all the items,
+	 * sized by weight. With a window these are the equal sectors the scroll
+	 * angle brings into view, the first and last one cut where the window
+	 * starts and ends at the top of the ring.
+	 */
+	private void layoutWindow() {
+		int tot = mRadialMenuContent.size();
+		if (!isVirtualized()) {
+			float[] angles = layoutSectors();
+			if (mWindowAngles != angles) {
+				mWindowAngles = angles;
+				mWindowVersion++;
+			}
+			mWindowFirst = 0;
+			mWindowCount = tot;
+			return;
+		}
+		if (mWindowAngles != mSectorAngles && mWindowScroll == mScrollAngle && mWindowTotal == tot)
+			return;
+		if (mWindowAngles == mSectorAngles || mWindowAngles.length < mVisibleItems + 2)
+			mWindowAngles = new float[mVisibleItems + 2];
+		float slice = 360f / mVisibleItems;
+		float start = alt ? -90 - slice / 2 : -90;
+		mWindowFirst = (int) Math.floor(-mScrollAngle / slice);
+		//where the first sector starts before the window, at most one sector
+		float offset = mScrollAngle + mWindowFirst * slice;
+		mWindowCount = offset < 0 ? mVisibleItems + 1 : mVisibleItems;
+		mWindowAngles[0] = start;
+		for (int counter = 1; counter < mWindowCount; counter++)
+			mWindowAngles[counter] = start + offset + counter * slice;
+		mWindowAngles[mWindowCount] = start + 360;
+		mWindowScroll = mScrollAngle;
+		mWindowTotal = tot;
+		mWindowVersion++;
+	}
+
+	/**
+	 * @param sector
+	 * @return The index of the item shown in a sector of the window.
+	 */
+	private int getWindowItem(int sector) {
+		int item = (mWindowFirst + sector) % mRadialMenuContent.size();
+		return item < 0 ? item + mRadialMenuContent.size() : item;
+	}
+
+	/**
+	 * Turns the window. The items repeat after the last one, so the angle
+	 * is kept within one turn through all of them.
+	 * @param angle
+	 */
+	private void scrollTo(float angle) {
+		float period = 360f / mVisibleItems * mRadialMenuContent.size();
+		angle %= period;
+		if (angle < 0)
+			angle += period;
+		if (angle != mScrollAngle) {
+			mScrollAngle = angle;
+			invalidate();
+		}
+	}
+
+	/**
+	 * @return How many scroller units make a degree, one unit being a pixel
+	 *         along the middle of the ring.
+	 */
+	private float getScrollUnitsPerDegree() {
+		return (float) (Math.PI * mRadius / 180);
+	}
+
+	@Override
+	public void computeScroll() {
+		if (mScroller.computeScrollOffset())
+			scrollTo(mScroller.getCurrX() / getScrollUnitsPerDegree());
+	}
+
+	/**
+	 * Lets the window fling on with the speed the finger went around the
+	 * ring.
+	 * @param x
+	 * @param y
+	 */
+	private void fling(float x, float y) {
+		mVelocityTracker.computeCurrentVelocity(1000);
+		float dx = x - mWidth;
+		float dy = y - mHeight;
+		float squared = dx * dx + dy * dy;
+		if (squared == 0)
+			return;
+		//speed around the center times the distance, clockwise being positive
+		float cross = dx * mVelocityTracker.getYVelocity() - dy * mVelocityTracker.getXVelocity();
+		if (cross * cross < mMinFlingVelocity * mMinFlingVelocity * squared)
+			return;
+		float degreesPerSecond = (float) Math.toDegrees(cross / squared);
+		float units = getScrollUnitsPerDegree();
+		mScroller.fling(Math.round(mScrollAngle * units), 0, Math.round(degreesPerSecond * units), 0,
+				Integer.MIN_VALUE / 2, Integer.MAX_VALUE / 2, 0, 0);
+		invalidate();
+	}
+
+	/**
+	 * Turns the window while the finger goes around outside the ring, or
+	 * highlights the item under the finger otherwise. Every sample batched
+	 * into the event is followed with a trig free pseudo angle, the turn is
+	 * only converted to degrees once for the event and the item is only
+	 * resolved for the last sample.
+	 * @param event
+	 */
+	private void trackTouch(MotionEvent event) {
+		if (isVirtualized()) {
+			float turn = 0;
+			int history = event.getHistorySize();
+			for (int h = 0; h < history; h++)
+				turn += trackSample(event.getHistoricalX(h), event.getHistoricalY(h));
+			turn += trackSample(event.getX(), event.getY());
+			turn += endTurn();
+			if (turn != 0)
+				scrollTo(mScrollAngle + turn);
+		}
+		preEvent(mScrolling ? -1 : resolveItem(event.getX(), event.getY()));
+	}
+
+	/**
+	 * Follows one touch sample around the outside of the ring. The pseudo
+	 * angle grows with the real one and is half a turn apart for opposite
+	 * directions, so it tells when the finger crosses the right of the ring.
+	 * @param x
+	 * @param y
+	 * @return Degrees the window turns by for a turn that ended, else 0.
+	 */
+	private float trackSample(float x, float y) {
+		float dx = x - mWidth;
+		float dy = y - mHeight;
+		float edge = mRadius + mThickness / 2;
+		if (dx * dx + dy * dy <= edge * edge) {
+			float turn = endTurn();
+			mScrolling = false;
+			return turn;
+		}
+		float pseudo = RadialSectorResolver.pseudoAngle(dx, dy);
+		if (!mScrolling) {
+			//only the start of a turn needs its angle right away
+			mScrolling = true;
+			mLastTouchAngle = toTouchAngle(dx, dy);
+			mTurnWraps = 0;
+		} else {
+			float step = pseudo - mLastTouchPseudo;
+			if (step > 2)
+				mTurnWraps--;
+			else if (step < -2)
+				mTurnWraps++;
+			mTurnPending = true;
+		}
+		mLastTouchPseudo = pseudo;
+		mTurnX = dx;
+		mTurnY = dy;
+		return 0;
+	}
+
+	/**
+	 * Converts the turn followed since the last conversion to degrees.
+	 * @return Degrees the window turns by.
+	 */
+	private float endTurn() {
+		if (!mTurnPending)
+			return 0;
+		mTurnPending = false;
+		float angle = toTouchAngle(mTurnX, mTurnY);
+		float turn = angle - mLastTouchAngle + 360 * mTurnWraps;
+		mLastTouchAngle = angle;
+		mTurnWraps = 0;
+		return turn;
+	}
+
+	/**
+	 * @param dx
+	 * @param dy
+	 * @return The angle of a direction in degrees, from 0 at the right
+	 *         going clockwise up to 360 like the pseudo angle.
+	 */
+	private static float toTouchAngle(float dx, float dy) {
+		float angle = (float) Math.toDegrees(Math.atan2(dy, dx));
+		return angle < 0 ? angle + 360 : angle;
+	}
+
+	private void releaseVelocityTracker() {
+		if (mVelocityTracker != null) {
+			mVelocityTracker.recycle();
+			mVelocityTracker = null;
 		}
 	}
 
@@ -197,7 +615,7 @@ public class RadialMenuView extends View {
 			selected = -1;
 			return false;
 		}
-		if (mRadialMenuContent.get(e).getMenuName().equals(RadialMenuRenderer.RADIAL_NO_TEXT)) {
+		if (mRadialMenuContent.get(e).isHollow()) {
 			selected = -1;
 			invalidate();
 			return false;
@@ -216,46 +634,144 @@ public class RadialMenuView extends View {
 	private void preEvent(int e) {
 		if (e == mRadialMenuContent.size())
 			e = 0;
-		else if (lastE == e)
+		if (lastE == e)
 			return;
 		lastE = e;
+		int lastSelected = selected;
 		if (e == -1) {
 			selected = -1;
-			invalidate();
-			return;
-		}
-		if (mRadialMenuContent.get(e).getMenuName().equals(RadialMenuRenderer.RADIAL_NO_TEXT)) {
+		} else if (mRadialMenuContent.get(e).isHollow()) {
 			selected = -1;
-			invalidate();
+		} else {
+			selected = e;
+		}
+		invalidateSelection(lastSelected, selected);
+	}
+
+	/**
+	 * Redraws only the sectors whose highlight changed.
+	 * @param lastSelected
+	 * @param newSelected
+	 */
+	private void invalidateSelection(int lastSelected, int newSelected) {
+		if (lastSelected == newSelected)
+			return;
+		//uses the same clamped center as onDraw
+		setLoc(mWidth, mHeight);
+		mDirtyRect.setEmpty();
+		addDirtySector(lastSelected);
+		addDirtySector(newSelected);
+		if (!mDirtyRect.isEmpty())
+			invalidate(mDirtyRect);
+	}
+
+	private void addDirtySector(int item) {
+		if (item < 0)
 			return;
+		layoutWindow();
+		float[] angles = mWindowAngles;
+		for (int counter = 0; counter < mWindowCount; counter++) {
+			if (getWindowItem(counter) != item)
+				continue;
+			//covers the separators and the outer and inner borders
+			RadialSectorResolver.getSectorBounds(mWidth, mHeight, mRadius - mThickness / 2 - 2,
+					mRadius + mThickness / 2 + 2, angles[counter] - 1, angles[counter + 1] - angles[counter] + 2, mDirtyBounds);
+			mDirtyBounds.roundOut(mSectorRect);
+			mDirtyRect.union(mSectorRect);
 		}
-		selected = e;
-		invalidate();
-		return;
+	}
+
+	/**
+	 * Resolves the menu item under a point.
+	 * @param x
+	 * @param y
+	 * @return The item index, or -1 if the point is inside the ring.
+	 */
+	private int resolveItem(float x, float y) {
+		layoutWindow();
+		if (mResolverVersion != mWindowVersion) {
+			//outside a window the finger turns it instead
+			mSectorResolver.setRing(0, mRadius - mThickness / 2,
+					isVirtualized() ? mRadius + mThickness / 2 : Float.POSITIVE_INFINITY, mWindowAngles, mWindowCount);
+			mResolverVersion = mWindowVersion;
+		}
+		mSectorResolver.setCenter(mWidth, mHeight);
+		int hit = mSectorResolver.resolve(x, y);
+		if (hit == RadialSectorResolver.NO_SECTOR)
+			return -1;
+		return getWindowItem(RadialSectorResolver.getSector(hit));
+	}
+
+	/**
+	 * Resolves the menu item a stroke made before the menu shows points at.
+	 * Only the sector angles are needed, the menu is not drawn.
+	 * @param x
+	 * @param y
+	 * @return The item index, or -1 if the stroke is too short.
+	 */
+	private int recognizeStroke(float x, float y) {
+		layoutWindow();
+		int sector = RadialStrokeRecognizer.recognize(mWidth, mHeight, x, y,
+				mRadius - mThickness / 2, mWindowAngles, mWindowCount);
+		if (sector == RadialSectorResolver.NO_SECTOR)
+			return -1;
+		return getWindowItem(sector);
 	}
 
 	public boolean gestureHandler(MotionEvent event, boolean eat) {
-		if (event.getAction() == MotionEvent.ACTION_UP) {
-			endTouch = new float[] { event.getX(), event.getY() };
-			if (mHelperFunctions.distance(mWidth, mHeight, endTouch[0], endTouch[1]) > mRadius - mThickness / 2) {
-				this.setVisibility(View.GONE);
-				return handleEvent((int) mHelperFunctions.angle(mWidth, mHeight, endTouch[0], endTouch[1], alt, mRadialMenuContent.size()));
-			} else {
-				this.setVisibility(View.GONE);
-				return handleEvent(-1);
+		if (isVirtualized()) {
+			if (mVelocityTracker == null)
+				mVelocityTracker = VelocityTracker.obtain();
+			mVelocityTracker.addMovement(event);
+		}
+		int action = event.getAction();
+		if (action == MotionEvent.ACTION_UP) {
+			if (mMarking) {
+				//the stroke was made before the menu showed
+				removeCallbacks(mShowMenu);
+				mMarking = false;
+				releaseVelocityTracker();
+				return handleEvent(recognizeStroke(event.getX(), event.getY()));
 			}
-		} else if (event.getAction() == MotionEvent.ACTION_DOWN) {
-			mWidth = event.getX();
-			mHeight = event.getY();
-			this.setVisibility(View.VISIBLE);
-			invalidate();
-		} else if (event.getAction() == MotionEvent.ACTION_MOVE) {//drag
-			endTouch = new float[] { event.getX(), event.getY() };
-			if (mHelperFunctions.distance(mWidth, mHeight, endTouch[0], endTouch[1]) > mRadius - mThickness / 2) {
-				preEvent((int) mHelperFunctions.angle(mWidth, mHeight, endTouch[0], endTouch[1], alt, mRadialMenuContent.size()));
+			if (mScrolling) {
+				//keeps the menu open while the window flings on
+				mScrolling = false;
+				mParked = true;
+				fling(event.getX(), event.getY());
+				releaseVelocityTracker();
+				return eat;
+			}
+			mParked = false;
+			releaseVelocityTracker();
+			this.setVisibility(View.GONE);
+			return handleEvent(resolveItem(event.getX(), event.getY()));
+		} else if (action == MotionEvent.ACTION_DOWN) {
+			mScroller.forceFinished(true);
+			if (mParked && getVisibility() == View.VISIBLE) {
+				//touches the open menu where it is
+				mScrolling = false;
+				trackTouch(event);
 			} else {
-				preEvent(-1);
+				mParked = false;
+				mWidth = event.getX();
+				mHeight = event.getY();
+				removeCallbacks(mShowMenu);
+				if (mMarkingDelay > 0) {
+					//shows the menu only if the touch is held
+					mMarking = true;
+					postDelayed(mShowMenu, mMarkingDelay);
+				} else {
+					this.setVisibility(View.VISIBLE);
+					invalidate();
+				}
 			}
+		} else if (action == MotionEvent.ACTION_MOVE && !mMarking) {//drag
+			trackTouch(event);
+		} else if (action == MotionEvent.ACTION_CANCEL) {
+			//a cancelled press never shows the menu
+			removeCallbacks(mShowMenu);
+			mMarking = false;
+			releaseVelocityTracker();
 		}
 		//Eats touch if needed, fixes scrollable elements from interfering
 		return eat;
@@ -91,6 +91,8 @@ public class RadialProgressWidget extends View {
 	
 	private String mFontName = null;
 	
+	private Typeface mTypeface = null;
+	
 	private OnRadialViewValueChanged mCallback;
 	
 	public interface OnRadialViewValueChanged {
@@ -163,8 +165,8 @@ public class RadialProgressWidget extends View {
 		//Draw the center value text
 		mRadialWidgetPaint.setColor(mCenterTextColor);
 		mRadialWidgetPaint.setTextSize(mCenterTextSize);		
-		if(mFontName != null) 
-			mRadialWidgetPaint.setTypeface(Typeface.createFromAsset(getContext().getAssets(), mFontName));
+		if(mTypeface != null) 
+			mRadialWidgetPaint.setTypeface(mTypeface);
 		float textWidth = 0.0f;
 		//Check if the user wants percentage value
 		if(isShowPercentText) {
@@ -484,9 +486,48 @@ public class RadialProgressWidget extends View {
 	}
 	
 	/**
-	 * @param mFont
+	 * Set the font used for the text. The font is loaded once for the whole
+	 * process and shared by every widget using it.
+	 * @param mFont - Path of the font in the assets folder.
 	 */
 	public void setFontName(String mFont) {
 		mFontName = mFont;
+		mTypeface = mFont != null ? RadialTypefaceCache.get(getContext().getAssets(), mFont) : null;
+		invalidate();
+	}
+	
+	/**
+	 * Set the font used for the text, loading it on a background thread if it
+	 * is not cached yet. The default font is used until the font is loaded.
+	 * @param mFont - Path of the font in the assets folder.
+	 * @param loadInBackground - Pass true to load the font off the UI thread.
+	 */
+	public void setFontName(String mFont, boolean loadInBackground) {
+		if(!loadInBackground || mFont == null) {
+			setFontName(mFont);
+			return;
+		}
+		mFontName = mFont;
+		mTypeface = RadialTypefaceCache.peek(mFont);
+		if(mTypeface == null) {
+			RadialTypefaceCache.preload(getContext().getAssets(), mFont, new RadialTypefaceCache.OnTypefaceLoaded() {
+				@Override
+				public void onTypefaceLoaded(String assetPath, Typeface typeface) {
+					//Ignore fonts that were replaced while loading
+					if(assetPath.equals(mFontName)) {
+						mTypeface = typeface;
+						invalidate();
+					}
+				}
+			});
+		}
+		invalidate();
+	}
+	
+	/**
+	 * @return the mFontName
+	 */
+	public String getFontName() {
+		return mFontName;
 	}
 }
@@ -0,0 +1,135 @@
+/** Copyright (C) 2012 
+ * Arindam Nath (strider2023@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.touchmenotapps.widget.radialmenu.progress.widget;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+import android.content.res.AssetManager;
+import android.graphics.Typeface;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.touchmenotapps.widget.radialmenu.RadialBackgroundExecutor;
+
+/**
+ * This class keeps one Typeface per font asset for the whole process, so a
+ * font file is only parsed the first time it is used. It is safe to use from
+ * any thread, and fonts can be loaded in the background ahead of time.
+ */
+public class RadialTypefaceCache {
+	
+	public interface OnTypefaceLoaded {
+		public void onTypefaceLoaded(String assetPath, Typeface typeface);
+	}
+	
+	private static final ConcurrentHashMap<String, Typeface> mTypefaces = new ConcurrentHashMap<String, Typeface>();
+	
+	private static final Object mLoadLock = new Object();
+	
+	private static ExecutorService mLoader = null;
+	
+	private static Handler mMainHandler = null;
+	
+	private RadialTypefaceCache() {
+	}
+	
+	/**
+	 * Get the typeface of a font asset, loading it if it is not cached yet.
+	 * @param assets - Asset manager to load the font from.
+	 * @param assetPath - Path of the font in the assets folder.
+	 * @return The typeface, or null if the font could not be loaded.
+	 */
+	public static Typeface get(AssetManager assets, String assetPath) {
+		Typeface typeface = mTypefaces.get(assetPath);
+		if(typeface != null)
+			return typeface;
+		synchronized (mLoadLock) {
+			typeface = mTypefaces.get(assetPath);
+			if(typeface == null) {
+				try {
+					typeface = Typeface.createFromAsset(assets, assetPath);
+					mTypefaces.put(assetPath, typeface);
+				} catch (RuntimeException e) {
+					Log.e(RadialTypefaceCache.class.getName(), "Could not load font " + assetPath, e);
+				}
+			}
+		}
+		return typeface;
+	}
+	
+	/**
+	 * Get the typeface of a font asset only if it is already cached.
+	 * @param assetPath - Path of the font in the assets folder.
+	 * @return The typeface, or null if it was not loaded yet.
+	 */
+	public static Typeface peek(String assetPath) {
+		return mTypefaces.get(assetPath);
+	}
+	
+	/**
+	 * Load a font asset on a background thread.
+	 * @param assets - Asset manager to load the font from.
+	 * @param assetPath - Path of the font in the assets folder.
+	 * @param callback - Called on the main thread once the font is loaded. Pass null if not needed.
+	 */
+	public static void preload(final AssetManager assets, final String assetPath, final OnTypefaceLoaded callback) {
+		Typeface typeface = mTypefaces.get(assetPath);
+		if(typeface != null) {
+			if(callback != null)
+				callback.onTypefaceLoaded(assetPath, typeface);
+			return;
+		}
+		final Handler handler = getMainHandler();
+		getLoader().execute(new Runnable() {
+			@Override
+			public void run() {
+				final Typeface loaded = get(assets, assetPath);
+				if(callback != null && loaded != null) {
+					handler.post(new Runnable() {
+						@Override
+						public void run() {
+							callback.onTypefaceLoaded(assetPath, loaded);
+						}
+					});
+				}
+			}
+		});
+	}
+	
+	/**
+	 * Removes all the cached typefaces.
+	 */
+	public static void clear() {
+		mTypefaces.clear();
+	}
+	
+	private static synchronized Handler getMainHandler() {
+		if(mMainHandler == null)
+			mMainHandler = new Handler(Looper.getMainLooper());
+		return mMainHandler;
+	}
+	
+	private static synchronized ExecutorService getLoader() {
+		if(mLoader == null) {
+			mLoader = RadialBackgroundExecutor
+					.newSingleThreadExecutor("RadialTypefaceLoader");
+		}
+		return mLoader;
+	}
+}
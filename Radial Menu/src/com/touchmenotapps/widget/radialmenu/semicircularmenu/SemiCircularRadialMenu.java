@@ -16,7 +16,10 @@
 
 package com.touchmenotapps.widget.radialmenu.semicircularmenu;
 
+import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
 
 import android.content.Context;
 import android.graphics.Canvas;
@@ -33,10 +36,14 @@ import android.view.MotionEvent;
 import android.view.View;
 
 import com.touchmenotapps.widget.radialmenu.RadialMenuColors;
+import com.touchmenotapps.widget.radialmenu.RadialSectorResolver;
+import com.touchmenotapps.widget.radialmenu.RadialUsageStore;
 
 /**
  * This is the core class that handles the widget display and user interaction.
- * TODO At times the arc area bound check fails. Gotta check that.
+ * Menu items can be added and removed from any thread. Every change publishes
+ * a new immutable item map, which the UI thread picks up on the next frame or
+ * touch without taking a lock.
  * 
  * @author Arindam Nath (strider2023@gmail.com), Philipp Ebert
  *         philebert@gmail.com
@@ -63,7 +70,23 @@ public class SemiCircularRadialMenu extends View {
 	private int mCenterCurrentBackgroundColor = Color.WHITE;
 	private int mCenterCurrentTextColor = Color.DKGRAY;
 	private Paint mMenuPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-	private LinkedHashMap<String, SemiCircularRadialMenuItem> mMenuItems = new LinkedHashMap<String, SemiCircularRadialMenuItem>();
+	// Latest items, replaced as a whole by every change on any thread
+	private final AtomicReference<Map<String, SemiCircularRadialMenuItem>> mPublishedItems = new AtomicReference<Map<String, SemiCircularRadialMenuItem>>(
+			Collections.<String, SemiCircularRadialMenuItem> emptyMap());
+	// Items the menu is laid out with, only used on the UI thread
+	private Map<String, SemiCircularRadialMenuItem> mMenuItems = mPublishedItems.get();
+	private SemiCircularRadialMenuItem[] mMenuItemSectors = new SemiCircularRadialMenuItem[0];
+	private float[] mSectorWeights = new float[0];
+	private float[] mSectorAngles = new float[1];
+	private RadialSectorResolver mSectorResolver = new RadialSectorResolver();
+	// Lays the items out again after a weight changed, before the next frame
+	private final Runnable mItemLayout = new Runnable() {
+		@Override
+		public void run() {
+			layoutMenuItems();
+			invalidate();
+		}
+	};
 	private int mOrientation = HORIZONTAL_BOTTOM;
 
 	// Variables that can be user defined
@@ -93,6 +116,12 @@ public class SemiCircularRadialMenu extends View {
 	private Paint mMenuBorderPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
 	private RectF mMenuCenterButtonBorderRec;
 	private Rect mMenuCenterButtonIconRect;
+	private Rect mDirtyRect = new Rect();
+	private RadialUsageStore mUsageStore = null;
+	private float[] mUsageScores = new float[0];
+	private int[] mUsagePositions = new int[0];
+	private int[] mUsageEasiest = new int[0];
+	private SemiCircularRadialMenuItem[] mUsageOrder = new SemiCircularRadialMenuItem[0];
 
 	public SemiCircularRadialMenu(Context context) {
 		super(context);
@@ -122,6 +151,7 @@ public class SemiCircularRadialMenu extends View {
 	@Override
 	protected void onDraw(Canvas canvas) {
 		super.onDraw(canvas);
+		pickUpMenuItems();
 		if (showShadows) {
 			mMenuPaint.setShadowLayer(mShadowRadius, 0.0f, 0.0f, mShadowColor);
 		}
@@ -129,17 +159,12 @@ public class SemiCircularRadialMenu extends View {
 		if (isMenuVisible) {
 			canvas.drawArc(mMenuRect, mStartAngle, 180, true, mMenuPaint);
 			// See if there is any item in the collection
-			if (mMenuItems.size() > 0) {
-				float mStart = mStartAngle;
-				// Get the sweep angles based on the number of menu items
-				float mSweep = 180 / mMenuItems.size();
-				for (SemiCircularRadialMenuItem item : mMenuItems.values()) {
+			if (mMenuItemSectors.length > 0) {
+				for (SemiCircularRadialMenuItem item : mMenuItemSectors) {
 					mMenuPaint.setColor(item.getBackgroundColor());
-					item.setMenuPath(mMenuCenterButtonRect, mMenuRect, mStart, mSweep, mMenuRadius, mViewAnchorPoints);
 					canvas.drawPath(item.getMenuPath(), mMenuPaint);
 					
 					if (mMenuBorderPaint != null) {
-						item.setBorderPath(mMenuCenterButtonRect, mMenuRect, mStart, mSweep, mMenuRadius, mViewAnchorPoints);
 						canvas.drawPath(item.getBorderPath(), mMenuBorderPaint);
 					}
 
@@ -154,7 +179,6 @@ public class SemiCircularRadialMenu extends View {
 						}
 					}
 					item.getIcon().draw(canvas);
-					mStart += mSweep;
 				}
 			}
 		}
@@ -188,35 +212,39 @@ public class SemiCircularRadialMenu extends View {
 
 		switch (event.getAction()) {
 		case MotionEvent.ACTION_DOWN:
+			// A press works on the items shown when it started
+			pickUpMenuItems();
+			mPressedMenuItemID = null;
 			if (mMenuCenterButtonRect.contains(x, y)) {
 				mCenterCurrentTextColor = centerToggleTextColor;
 				mCenterCurrentBackgroundColor = centerToggleBackgroundColor;
 				isMenuTogglePressed = true;
-				invalidate();
+				invalidateDirty(mMenuCenterButtonBorderRec);
 			} else if (isMenuVisible) {
 				if (mMenuItems.size() > 0) {
-					for (SemiCircularRadialMenuItem item : mMenuItems.values()) {
-						if (mMenuRect.contains((int) x, (int) y))
-							if (item.getBounds().contains((int) x, (int) y)) {
-								isMenuItemPressed = true;
-								mPressedMenuItemID = item.getMenuID();
-								break;
-							}
+					int hit = mSectorResolver.resolve(x, y);
+					if (hit != RadialSectorResolver.NO_SECTOR) {
+						isMenuItemPressed = true;
+						mPressedMenuItemID = mMenuItemSectors[RadialSectorResolver.getSector(hit)].getMenuID();
 					}
 
 					if (mPressedMenuItemID != null) {
-						mMenuItems.get(mPressedMenuItemID).setBackgroundColor(
-								mMenuItems.get(mPressedMenuItemID).getMenuSelectedColor());
+						SemiCircularRadialMenuItem item = mMenuItems.get(mPressedMenuItemID);
+						// Only redraw the item if its color really changes
+						if (item.getBackgroundColor() != item.getMenuSelectedColor()) {
+							item.setBackgroundColor(item.getMenuSelectedColor());
+							invalidateDirty(item.getBounds());
+						}
 					}
-
-					invalidate();
 				}
 			}
 
 			if (isMenuItemPressed || isMenuTogglePressed) {
 				return true;
 			} else if (isMenuVisible) {
+				// The whole menu is hidden, not just a single item
 				isMenuVisible = false;
+				invalidate();
 				return true;
 			}
 			break;
@@ -230,6 +258,7 @@ public class SemiCircularRadialMenu extends View {
 				} else {
 					isMenuVisible = true;
 					centerMenuText = closeMenuText;
+					applyUsageOrder();
 				}
 				isMenuTogglePressed = false;
 				invalidate();
@@ -237,12 +266,21 @@ public class SemiCircularRadialMenu extends View {
 			}
 
 			if (isMenuItemPressed) {
-				if (mMenuItems.get(mPressedMenuItemID).getCallback() != null) {
-					mMenuItems.get(mPressedMenuItemID).getCallback().onMenuItemPressed();
-				}
-				mMenuItems.get(mPressedMenuItemID).setBackgroundColor(mMenuItems.get(mPressedMenuItemID).getMenuNormalColor());
 				isMenuItemPressed = false;
-				invalidate();
+				SemiCircularRadialMenuItem item = mMenuItems.get(mPressedMenuItemID);
+				mPressedMenuItemID = null;
+				if (item == null) {
+					// Removed while it was pressed
+					return true;
+				}
+				if (mUsageStore != null) {
+					mUsageStore.recordUse(RadialUsageStore.hashKey(0, item.getMenuID()));
+				}
+				if (item.getCallback() != null) {
+					item.getCallback().onMenuItemPressed();
+				}
+				item.setBackgroundColor(item.getMenuNormalColor());
+				invalidateDirty(item.getBounds());
 				return true;
 			}
 			break;
@@ -251,6 +289,23 @@ public class SemiCircularRadialMenu extends View {
 		return false;
 	}
 
+	/**
+	 * Redraws only the given region, grown to cover the border and the shadow.
+	 * @param bounds
+	 */
+	private void invalidateDirty(RectF bounds) {
+		float padding = mMenuPaint.getStrokeWidth() + 2;
+		if (mMenuBorderPaint != null) {
+			padding += mMenuBorderPaint.getStrokeWidth();
+		}
+		if (showShadows) {
+			padding += mShadowRadius;
+		}
+		bounds.roundOut(mDirtyRect);
+		mDirtyRect.inset(-(int) Math.ceil(padding), -(int) Math.ceil(padding));
+		invalidate(mDirtyRect);
+	}
+
 	@Override
 	protected void onSizeChanged(int w, int h, int oldw, int oldh) {
 		super.onSizeChanged(w, h, oldw, oldh);
@@ -271,6 +326,147 @@ public class SemiCircularRadialMenu extends View {
 		// visible around the stroke.
 		mMenuCenterButtonBorderRec = new RectF(mMenuCenterButtonRect.left - 2, mMenuCenterButtonRect.top - 2,
 				mMenuCenterButtonRect.right + 2, mMenuCenterButtonRect.bottom + 2);
+		layoutMenuItems();
+	}
+
+	/**
+	 * Switches to the latest published item map if it changed and lays the
+	 * items out again. Only called on the UI thread.
+	 */
+	private void pickUpMenuItems() {
+		Map<String, SemiCircularRadialMenuItem> items = mPublishedItems.get();
+		if (items != mMenuItems) {
+			mMenuItems = items;
+			layoutMenuItems();
+		}
+	}
+
+	/**
+	 * Publishes a new item map. Called with the mPublishedItems lock held, so
+	 * concurrent changes are never lost.
+	 * 
+	 * @param items
+	 *            - New item map, not changed after this call
+	 */
+	private void publishMenuItems(Map<String, SemiCircularRadialMenuItem> items) {
+		mPublishedItems.set(Collections.unmodifiableMap(items));
+		// Safe from any thread, the next frame picks up the items
+		postInvalidate();
+	}
+
+	/**
+	 * Build the paths, icon bounds and sector table of the menu items. Has to
+	 * be called whenever the menu items or the menu geometry change, draw
+	 * frames only replay what was built here.
+	 */
+	private void layoutMenuItems() {
+		// The sector array is only allocated again when the item count changes
+		if (mMenuItemSectors.length != mMenuItems.size()) {
+			mMenuItemSectors = new SemiCircularRadialMenuItem[mMenuItems.size()];
+		}
+		int k = 0;
+		for (SemiCircularRadialMenuItem item : mMenuItems.values()) {
+			mMenuItemSectors[k++] = item;
+		}
+		if (computeUsageOrder()) {
+			System.arraycopy(mUsageOrder, 0, mMenuItemSectors, 0, mMenuItemSectors.length);
+		}
+		if (mViewAnchorPoints == null || mMenuRect == null || mMenuCenterButtonRect == null
+				|| mMenuItemSectors.length == 0) {
+			mSectorResolver.clearRings();
+			return;
+		}
+		// Get the sweep angles based on the weights of the menu items
+		int count = mMenuItemSectors.length;
+		if (mSectorWeights.length < count) {
+			mSectorWeights = new float[count];
+			mSectorAngles = new float[count + 1];
+		}
+		for (int s = 0; s < count; s++) {
+			mSectorWeights[s] = mMenuItemSectors[s].getWeight();
+		}
+		RadialSectorResolver.divideArc(mStartAngle, 180, mSectorWeights, count, mSectorAngles);
+		for (int s = 0; s < count; s++) {
+			SemiCircularRadialMenuItem item = mMenuItemSectors[s];
+			float mStart = mSectorAngles[s];
+			float mSweep = mSectorAngles[s + 1] - mStart;
+			item.setMenuPath(mMenuCenterButtonRect, mMenuRect, mStart, mSweep, mMenuRadius, mViewAnchorPoints);
+			item.setBorderPath(mMenuCenterButtonRect, mMenuRect, mStart, mSweep, mMenuRadius, mViewAnchorPoints);
+			item.setMenu(this);
+		}
+		// The items sit between the center button and the outer border of the menu
+		mSectorResolver.setCenter(mViewAnchorPoints.x, mViewAnchorPoints.y);
+		mSectorResolver.setRing(0, (int) (mMenuRadius / menuToItemRatio), (int) mMenuRadius, mSectorAngles,
+				count);
+	}
+
+	/**
+	 * Lays the items out again on the UI thread, before the next frame. Called
+	 * by the items when their weight changes, from any thread.
+	 */
+	protected void requestItemLayout() {
+		removeCallbacks(mItemLayout);
+		post(mItemLayout);
+	}
+
+	/**
+	 * Orders the menu items by use, the most used ones nearest the middle of
+	 * the menu. Items without any use keep the order they were added in.
+	 * 
+	 * @return true if mUsageOrder holds the new order
+	 */
+	private boolean computeUsageOrder() {
+		int count = mMenuItemSectors.length;
+		if (mUsageStore == null || count < 2) {
+			return false;
+		}
+		if (mUsageScores.length < count) {
+			mUsageScores = new float[count];
+			mUsagePositions = new int[count];
+			mUsageEasiest = new int[count];
+			mUsageOrder = new SemiCircularRadialMenuItem[count];
+		}
+		int k = 0;
+		for (SemiCircularRadialMenuItem item : mMenuItems.values()) {
+			mUsageScores[k++] = mUsageStore.getScore(RadialUsageStore.hashKey(0, item.getMenuID()));
+		}
+		RadialUsageStore.orderByUsage(mUsageScores, count, count / 2, false, mUsagePositions, mUsageEasiest);
+		k = 0;
+		for (SemiCircularRadialMenuItem item : mMenuItems.values()) {
+			mUsageOrder[mUsagePositions[k++]] = item;
+		}
+		return true;
+	}
+
+	/**
+	 * Moves the items to their usage positions when the menu opens. The items
+	 * trade their built paths, so nothing has to be laid out again unless
+	 * their weights differ.
+	 */
+	private void applyUsageOrder() {
+		if (!computeUsageOrder()) {
+			return;
+		}
+		for (int s = 1; s < mMenuItemSectors.length; s++) {
+			if (mMenuItemSectors[s].getWeight() != mMenuItemSectors[0].getWeight()) {
+				// The sectors change size with the items in them
+				layoutMenuItems();
+				return;
+			}
+		}
+		for (int s = 0; s < mMenuItemSectors.length; s++) {
+			if (mMenuItemSectors[s] == mUsageOrder[s]) {
+				continue;
+			}
+			for (int j = s + 1; j < mMenuItemSectors.length; j++) {
+				if (mMenuItemSectors[j] == mUsageOrder[s]) {
+					mMenuItemSectors[s].swapGeometry(mMenuItemSectors[j]);
+					mMenuItemSectors[j] = mMenuItemSectors[s];
+					mMenuItemSectors[s] = mUsageOrder[s];
+					break;
+				}
+			}
+		}
 	}
 
 	/**
@@ -437,11 +633,12 @@ public class SemiCircularRadialMenu extends View {
 		mOrientation = orientation;
 		mMenuRect = getRadialMenuRect(false);
 		mMenuCenterButtonRect = getRadialMenuRect(true);
+		layoutMenuItems();
 		invalidate();
 	}
 
 	/**
-	 * Add a menu item with it's identifier tag
+	 * Add a menu item with it's identifier tag. Can be called from any thread.
 	 * 
 	 * @param idTag
 	 *            - Menu item identifier id
@@ -449,26 +646,53 @@ public class SemiCircularRadialMenu extends View {
 	 *            - RadialMenuItem object
 	 */
 	public void addMenuItem(SemiCircularRadialMenuItem mMenuItem) {
-		mMenuItems.put(mMenuItem.getMenuID(), mMenuItem);
-		invalidate();
+		synchronized (mPublishedItems) {
+			LinkedHashMap<String, SemiCircularRadialMenuItem> items = new LinkedHashMap<String, SemiCircularRadialMenuItem>(
+					mPublishedItems.get());
+			items.put(mMenuItem.getMenuID(), mMenuItem);
+			publishMenuItems(items);
+		}
 	}
 
 	/**
-	 * Remove a menu item with it's identifier tag
+	 * Remove a menu item with it's identifier tag. Can be called from any
+	 * thread.
 	 * 
 	 * @param idTag
 	 *            - Menu item identifier id
 	 */
 	public void removeMenuItemById(String idTag) {
-		mMenuItems.remove(idTag);
-		invalidate();
+		synchronized (mPublishedItems) {
+			if (!mPublishedItems.get().containsKey(idTag)) {
+				return;
+			}
+			LinkedHashMap<String, SemiCircularRadialMenuItem> items = new LinkedHashMap<String, SemiCircularRadialMenuItem>(
+					mPublishedItems.get());
+			items.remove(idTag);
+			publishMenuItems(items);
+		}
 	}
 
 	/**
-	 * Remove a all menu items
+	 * Remove a all menu items. Can be called from any thread.
 	 */
 	public void removeAllMenuItems() {
-		mMenuItems.clear();
+		synchronized (mPublishedItems) {
+			publishMenuItems(new LinkedHashMap<String, SemiCircularRadialMenuItem>());
+		}
+	}
+
+	/**
+	 * Set a store counting how often the items are pressed. The most used
+	 * items are then placed nearest the middle of the menu each time it
+	 * opens. Items are told apart by their identifier.
+	 * 
+	 * @param usageStore
+	 *            - Usage store, or null to keep the order the items were added in.
+	 */
+	public void setUsageStore(RadialUsageStore usageStore) {
+		mUsageStore = usageStore;
+		layoutMenuItems();
 		invalidate();
 	}
 
@@ -596,15 +820,28 @@ public class SemiCircularRadialMenu extends View {
 
 	public void setMenuToItemRatio(float menuToItemRatio) {
 		this.menuToItemRatio = menuToItemRatio;
+		layoutMenuItems();
 		invalidate();
 	}
 
+	/**
+	 * @return a copy of the menu items as last published. Changing it does not
+	 *         change the menu, pass it to setmMenuItems() for that.
+	 */
 	public LinkedHashMap<String, SemiCircularRadialMenuItem> getmMenuItems() {
-		return mMenuItems;
+		return new LinkedHashMap<String, SemiCircularRadialMenuItem>(mPublishedItems.get());
 	}
 
+	/**
+	 * Replace all the menu items. Can be called from any thread.
+	 * 
+	 * @param mMenuItems
+	 *            - Menu items by identifier, copied
+	 */
 	public void setmMenuItems(LinkedHashMap<String, SemiCircularRadialMenuItem> mMenuItems) {
-		this.mMenuItems = mMenuItems;
+		synchronized (mPublishedItems) {
+			publishMenuItems(new LinkedHashMap<String, SemiCircularRadialMenuItem>(mMenuItems));
+		}
 	}
 
 	public boolean isShowShadows() {
@@ -3,6 +3,7 @@ package com.touchmenotapps.widget.radialmenu.semicircularmenu;
 import android.graphics.Color;
 import android.graphics.Path;
 import android.graphics.Point;
+import android.graphics.Rect;
 import android.graphics.RectF;
 import android.graphics.drawable.Drawable;
 
@@ -18,8 +19,11 @@ public class SemiCircularRadialMenuItem {
 	private Path mPath;
 	private Path mBorderPath;
 	private RectF mBounds;
+	private RectF mBorderRect;
+	private SemiCircularRadialMenu mMenu; // Menu that last laid the item out
 	private OnSemiCircularRadialMenuPressed mCallback;
 	private int mIconDimen;
+	private float mWeight = 1;
 
 	public interface OnSemiCircularRadialMenuPressed {
 		public void onMenuItemPressed();
@@ -42,6 +46,7 @@ public class SemiCircularRadialMenuItem {
 		mPath = new Path();
 		mBorderPath = new Path();
 		mBounds = new RectF();
+		mBorderRect = new RectF();
 	}
 
 	/**
@@ -81,6 +86,34 @@ public class SemiCircularRadialMenuItem {
 		this.mIconDimen = mIconDimen;
 	}
 
+	/**
+	 * @return the mWeight
+	 */
+	public float getWeight() {
+		return mWeight;
+	}
+
+	/**
+	 * Set how much of the menu the item takes, relative to the other items.
+	 * The menu showing the item lays its items out again before its next
+	 * frame. Can be called from any thread.
+	 * 
+	 * @param mWeight
+	 *            the mWeight to set, greater than 0. The default is 1.
+	 */
+	public void setWeight(float mWeight) {
+		if (!(mWeight > 0) || Float.isInfinite(mWeight)) {
+			throw new IllegalArgumentException("Invalid weight: " + mWeight);
+		}
+		if (this.mWeight != mWeight) {
+			this.mWeight = mWeight;
+			SemiCircularRadialMenu menu = mMenu;
+			if (menu != null) {
+				menu.requestItemLayout();
+			}
+		}
+	}
+
 	/**
 	 * @return the mBounds
 	 */
@@ -107,6 +140,7 @@ public class SemiCircularRadialMenuItem {
 		int left, right, top, bottom;
 		left = right = top = bottom = 0;
 		// Draw the widget path
+		mPath.reset();
 		mPath.arcTo(menuRect, StartArc, ArcWidth);
 		mPath.arcTo(menuButtonRect, StartArc + ArcWidth, -ArcWidth);
 		mPath.close();
@@ -123,12 +157,60 @@ public class SemiCircularRadialMenuItem {
 
 	public void setBorderPath(RectF menuButtonRect, RectF menuRect, float StartArc, float ArcWidth, float radius,
 			Point anchorPoint) {
-		mBorderPath.arcTo(new RectF(menuRect.left+2, menuRect.top-2, menuRect.right+2, menuRect.bottom+2), StartArc, ArcWidth);
+		mBorderRect.set(menuRect.left+2, menuRect.top-2, menuRect.right+2, menuRect.bottom+2);
+		mBorderPath.reset();
+		mBorderPath.arcTo(mBorderRect, StartArc, ArcWidth);
 		mBorderPath.arcTo(menuButtonRect, StartArc + ArcWidth, -ArcWidth);
 		mBorderPath.close();
 
 	}
 
+	/**
+	 * @param menu
+	 *            the menu the paths were built for, told when the weight
+	 *            changes
+	 */
+	protected void setMenu(SemiCircularRadialMenu menu) {
+		this.mMenu = menu;
+	}
+
+	/**
+	 * Trades places with another item of the same menu. The paths and bounds
+	 * are swapped rather than built again.
+	 * 
+	 * @param other
+	 *            the item to trade places with
+	 */
+	protected void swapGeometry(SemiCircularRadialMenuItem other) {
+		Path path = mPath;
+		mPath = other.mPath;
+		other.mPath = path;
+		Path borderPath = mBorderPath;
+		mBorderPath = other.mBorderPath;
+		other.mBorderPath = borderPath;
+		RectF bounds = mBounds;
+		mBounds = other.mBounds;
+		other.mBounds = bounds;
+		RectF borderRect = mBorderRect;
+		mBorderRect = other.mBorderRect;
+		other.mBorderRect = borderRect;
+		// The icons may differ in size, so only their centers are swapped
+		Rect iconBounds = mIcon.getBounds();
+		int centerX = iconBounds.centerX();
+		int centerY = iconBounds.centerY();
+		Rect otherBounds = other.mIcon.getBounds();
+		int otherCenterX = otherBounds.centerX();
+		int otherCenterY = otherBounds.centerY();
+		setIconCenter(otherCenterX, otherCenterY);
+		other.setIconCenter(centerX, centerY);
+	}
+
+	private void setIconCenter(int centerX, int centerY) {
+		int left = centerX - (mIconDimen / 2);
+		int top = centerY - (mIconDimen / 2);
+		mIcon.setBounds(left, top, left + mIconDimen, top + mIconDimen);
+	}
+
 	private Point pointOnCircle(float radius, float angleInDegrees, Point origin) {
 		int x = (int) (radius * Math.cos(angleInDegrees * Math.PI / 180F)) + origin.x;
 		int y = (int) (radius * Math.sin(angleInDegrees * Math.PI / 180F)) + origin.y;
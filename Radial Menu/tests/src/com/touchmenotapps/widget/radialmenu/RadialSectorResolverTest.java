@@ -0,0 +1,234 @@
+/*
+ * Copyright (C) 2012 
+ * Arindam Nath (strider2023@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.touchmenotapps.widget.radialmenu;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class RadialSectorResolverTest {
+
+	private static final float CENTER = 100;
+
+	@Test
+	public void divideArcSplitsEqualSectors() {
+		float[] angles = new float[5];
+		RadialSectorResolver.divideArc(-90, 360, null, 4, angles);
+		assertArrayEquals(new float[] { -90, 0, 90, 180, 270 }, angles);
+	}
+
+	@Test
+	public void divideArcFollowsWeights() {
+		float[] angles = new float[4];
+		RadialSectorResolver.divideArc(0, 180, new float[] { 1, 2, 1 }, 3,
+				angles);
+		assertArrayEquals(new float[] { 0, 45, 135, 180 }, angles);
+	}
+
+	@Test
+	public void divideArcEndsOnTheExactArc() {
+		int sectors = 7;
+		float[] weights = new float[sectors];
+		for (int k = 0; k < sectors; k++)
+			weights[k] = 0.1f;
+		float[] angles = new float[sectors + 1];
+		RadialSectorResolver.divideArc(12.5f, 333.3f, weights, sectors, angles);
+		assertEquals(12.5f, angles[0], 0);
+		assertEquals(12.5f + 333.3f, angles[sectors], 0);
+		for (int k = 1; k <= sectors; k++)
+			assertTrue("Boundary " + k, angles[k] > angles[k - 1]);
+	}
+
+	@Test
+	public void divideArcWithoutSectors() {
+		float[] angles = new float[] { 5, 5 };
+		RadialSectorResolver.divideArc(30, 90, null, 0, angles);
+		assertEquals(30, angles[0], 0);
+		assertEquals(5, angles[1], 0);
+	}
+
+	@Test
+	public void findSectorPicksTheLastSectorStartingAtOrBefore() {
+		float[] bounds = new float[] { 0, 1, 2, 3, 4 };
+		assertEquals(0, RadialSectorResolver.findSector(bounds, 4, 0));
+		assertEquals(0, RadialSectorResolver.findSector(bounds, 4, 0.99f));
+		assertEquals(1, RadialSectorResolver.findSector(bounds, 4, 1));
+		assertEquals(2, RadialSectorResolver.findSector(bounds, 4, 2.5f));
+		assertEquals(3, RadialSectorResolver.findSector(bounds, 4, 3.99f));
+		// Values past the last boundary stay in the last sector
+		assertEquals(3, RadialSectorResolver.findSector(bounds, 4, 9));
+	}
+
+	@Test
+	public void findSectorSkipsEmptySectors() {
+		float[] bounds = new float[] { 0, 1, 1, 1, 2 };
+		assertEquals(0, RadialSectorResolver.findSector(bounds, 4, 0.5f));
+		assertEquals(3, RadialSectorResolver.findSector(bounds, 4, 1));
+		assertEquals(3, RadialSectorResolver.findSector(bounds, 4, 1.5f));
+	}
+
+	@Test
+	public void findSectorWithOneSector() {
+		float[] bounds = new float[] { 0, 4 };
+		assertEquals(0, RadialSectorResolver.findSector(bounds, 1, 0));
+		assertEquals(0, RadialSectorResolver.findSector(bounds, 1, 3.5f));
+	}
+
+	@Test
+	public void resolvesEqualSectors() {
+		RadialSectorResolver resolver = new RadialSectorResolver();
+		resolver.setCenter(CENTER, CENTER);
+		resolver.setRing(0, 10, 50, -90, 90, 4);
+		assertCode(0, 0, resolver.resolve(120, 80));
+		assertCode(0, 1, resolver.resolve(120, 120));
+		assertCode(0, 2, resolver.resolve(80, 120));
+		assertCode(0, 3, resolver.resolve(80, 80));
+		// A boundary belongs to the sector starting at it
+		assertCode(0, 1, resolver.resolve(130, CENTER));
+	}
+
+	@Test
+	public void resolvesOnlyInsideTheRing() {
+		RadialSectorResolver resolver = new RadialSectorResolver();
+		resolver.setCenter(CENTER, CENTER);
+		resolver.setRing(0, 10, 50, 0, 90, 4);
+		assertEquals(RadialSectorResolver.NO_SECTOR, resolver.resolve(105,
+				CENTER));
+		assertEquals(RadialSectorResolver.NO_SECTOR, resolver.resolve(150,
+				CENTER));
+		assertEquals(RadialSectorResolver.NO_SECTOR, resolver.resolve(CENTER,
+				CENTER));
+		assertCode(0, 0, resolver.resolve(110, CENTER));
+	}
+
+	@Test
+	public void resolvesPartialArcOfOuterRing() {
+		RadialSectorResolver resolver = new RadialSectorResolver();
+		resolver.setCenter(CENTER, CENTER);
+		resolver.setRing(0, 10, 50, 0, 90, 4);
+		resolver.setRing(1, 50, Float.POSITIVE_INFINITY, new float[] { 0, 30,
+				90 }, 2);
+		assertCode(1, 0, resolveAngle(resolver, 15, 80));
+		assertCode(1, 1, resolveAngle(resolver, 60, 80));
+		assertCode(1, 1, resolveAngle(resolver, 60, 5000));
+		assertEquals(RadialSectorResolver.NO_SECTOR, resolveAngle(resolver,
+				180, 80));
+		assertCode(0, 2, resolveAngle(resolver, 190, 30));
+	}
+
+	@Test
+	public void resolvesWeightedFullCircle() {
+		float[] angles = new float[3];
+		RadialSectorResolver.divideArc(0, 360, new float[] { 3, 1 }, 2, angles);
+		RadialSectorResolver resolver = new RadialSectorResolver();
+		resolver.setCenter(CENTER, CENTER);
+		resolver.setRing(0, 0, 50, angles, 2);
+		assertCode(0, 0, resolveAngle(resolver, 0, 30));
+		assertCode(0, 0, resolveAngle(resolver, 200, 30));
+		assertCode(0, 1, resolveAngle(resolver, 300, 30));
+		// The last sector closes the circle
+		assertCode(0, 1, resolveAngle(resolver, 359.9f, 30));
+	}
+
+	@Test
+	public void skipsHiddenAndClearedRings() {
+		RadialSectorResolver resolver = new RadialSectorResolver();
+		resolver.setCenter(CENTER, CENTER);
+		resolver.setRing(0, 10, 50, 0, 90, 4);
+		resolver.setRingVisible(0, false);
+		assertEquals(RadialSectorResolver.NO_SECTOR, resolveAngle(resolver,
+				45, 30));
+		resolver.setRingVisible(0, true);
+		assertCode(0, 0, resolveAngle(resolver, 45, 30));
+		resolver.clearRings();
+		assertEquals(RadialSectorResolver.NO_SECTOR, resolveAngle(resolver,
+				45, 30));
+		// A cleared ring can't be shown before it is set again
+		resolver.setRingVisible(0, true);
+		assertEquals(RadialSectorResolver.NO_SECTOR, resolveAngle(resolver,
+				45, 30));
+	}
+
+	@Test
+	public void matchesRealAngles() {
+		Random random = new Random(42);
+		RadialSectorResolver resolver = new RadialSectorResolver();
+		resolver.setCenter(CENTER, CENTER);
+		for (int round = 0; round < 200; round++) {
+			int sectors = 1 + random.nextInt(12);
+			float[] weights = new float[sectors];
+			for (int k = 0; k < sectors; k++)
+				weights[k] = 0.2f + random.nextFloat() * 3;
+			float start = random.nextFloat() * 720 - 360;
+			float sweep = 20 + random.nextFloat() * 340;
+			float[] angles = new float[sectors + 1];
+			RadialSectorResolver.divideArc(start, sweep, weights, sectors,
+					angles);
+			resolver.setRing(0, 0, Float.POSITIVE_INFINITY, angles, sectors);
+			for (int point = 0; point < 50; point++) {
+				float angle = random.nextFloat() * 360;
+				float relative = ((angle - start) % 360 + 360) % 360;
+				// Pseudo angles round differently right at a boundary
+				if (nearBoundary(angles, start, relative))
+					continue;
+				int expected = RadialSectorResolver.NO_SECTOR;
+				for (int k = 0; k < sectors; k++) {
+					if (relative >= angles[k] - start
+							&& relative < angles[k + 1] - start)
+						expected = k;
+				}
+				int code = resolveAngle(resolver, angle, 40);
+				int sector = code == RadialSectorResolver.NO_SECTOR ? code
+						: RadialSectorResolver.getSector(code);
+				assertEquals("Angle " + angle + " of " + sectors
+						+ " sectors from " + start, expected, sector);
+			}
+		}
+	}
+
+	private static boolean nearBoundary(float[] angles, float start,
+			float relative) {
+		for (int k = 0; k < angles.length; k++) {
+			if (Math.abs(angles[k] - start - relative) < 0.01f)
+				return true;
+		}
+		return relative > 359.99f;
+	}
+
+	private static int resolveAngle(RadialSectorResolver resolver,
+			float angle, float distance) {
+		double radians = Math.toRadians(angle);
+		return resolver.resolve((float) (CENTER + Math.cos(radians) * distance),
+				(float) (CENTER + Math.sin(radians) * distance));
+	}
+
+	private static void assertCode(int ring, int sector, int code) {
+		assertTrue("No sector", code != RadialSectorResolver.NO_SECTOR);
+		assertEquals("Ring", ring, RadialSectorResolver.getRing(code));
+		assertEquals("Sector", sector, RadialSectorResolver.getSector(code));
+	}
+
+	private static void assertArrayEquals(float[] expected, float[] actual) {
+		assertEquals("Length", expected.length, actual.length);
+		for (int i = 0; i < expected.length; i++)
+			assertEquals("Index " + i, expected[i], actual[i], 0.0001f);
+	}
+}
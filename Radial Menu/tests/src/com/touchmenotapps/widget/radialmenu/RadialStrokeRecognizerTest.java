@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2012 
+ * Arindam Nath (strider2023@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.touchmenotapps.widget.radialmenu;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class RadialStrokeRecognizerTest {
+
+	private static final float MIN_DISTANCE = 20;
+	private static final float[] COMPASS = new float[] { -45, 45, 135, 225,
+			315 };
+
+	@Test
+	public void recognizesStrokeDirections() {
+		assertEquals(0, stroke(0, 50, COMPASS, 4));
+		assertEquals(1, stroke(90, 50, COMPASS, 4)); // Y grows downwards
+		assertEquals(2, stroke(180, 50, COMPASS, 4));
+		assertEquals(3, stroke(270, 50, COMPASS, 4));
+		assertEquals(0, stroke(-30, 50, COMPASS, 4));
+	}
+
+	@Test
+	public void shortStrokesAreTaps() {
+		assertEquals(RadialSectorResolver.NO_SECTOR, stroke(0, MIN_DISTANCE
+				- 0.5f, COMPASS, 4));
+		assertEquals(RadialSectorResolver.NO_SECTOR,
+				RadialStrokeRecognizer.recognize(10, 10, 10, 10, MIN_DISTANCE,
+						COMPASS, 4));
+		assertEquals(0, RadialStrokeRecognizer.recognize(10, 10,
+				10 + MIN_DISTANCE, 10, MIN_DISTANCE, COMPASS, 4));
+	}
+
+	@Test
+	public void noSectorsRecognizeNothing() {
+		assertEquals(RadialSectorResolver.NO_SECTOR, stroke(0, 50,
+				new float[] { 0 }, 0));
+	}
+
+	@Test
+	public void boundaryBelongsToTheSectorStartingAtIt() {
+		float[] angles = new float[] { 0, 90, 180, 270, 360 };
+		assertEquals(0, stroke(0, 50, angles, 4));
+		assertEquals(1, stroke(90, 50, angles, 4));
+		assertEquals(2, stroke(180, 50, angles, 4));
+	}
+
+	@Test
+	public void strokesOutsideAPartialArcPickNothing() {
+		float[] angles = new float[] { 0, 90, 180 };
+		assertEquals(0, stroke(30, 50, angles, 2));
+		assertEquals(1, stroke(120, 50, angles, 2));
+		assertEquals(RadialSectorResolver.NO_SECTOR, stroke(270, 50, angles,
+				2));
+	}
+
+	@Test
+	public void arcsMayStartPastAFullTurn() {
+		float[] angles = new float[] { 300, 390, 480 };
+		assertEquals(0, stroke(10, 50, angles, 2));
+		assertEquals(1, stroke(100, 50, angles, 2));
+		assertEquals(RadialSectorResolver.NO_SECTOR, stroke(200, 50, angles,
+				2));
+		float[] negative = new float[] { -400, -300 };
+		assertEquals(0, stroke(0, 50, negative, 1));
+		assertEquals(RadialSectorResolver.NO_SECTOR, stroke(90, 50,
+				negative, 1));
+	}
+
+	@Test
+	public void weightedSectors() {
+		float[] angles = new float[4];
+		RadialSectorResolver.divideArc(-90, 360, new float[] { 2, 1, 1 }, 3,
+				angles);
+		assertEquals(0, stroke(80, 50, angles, 3));
+		assertEquals(1, stroke(100, 50, angles, 3));
+		assertEquals(2, stroke(200, 50, angles, 3));
+	}
+
+	private static int stroke(float angle, float length, float[] angles,
+			int sectors) {
+		double radians = Math.toRadians(angle);
+		float startX = 200;
+		float startY = 300;
+		return RadialStrokeRecognizer.recognize(startX, startY,
+				(float) (startX + Math.cos(radians) * length),
+				(float) (startY + Math.sin(radians) * length), MIN_DISTANCE,
+				angles, sectors);
+	}
+}
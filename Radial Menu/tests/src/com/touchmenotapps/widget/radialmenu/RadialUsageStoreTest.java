@@ -0,0 +1,198 @@
+/*
+ * Copyright (C) 2012 
+ * Arindam Nath (strider2023@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.touchmenotapps.widget.radialmenu;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class RadialUsageStoreTest {
+
+	private static final long MINUTE = 60 * 1000;
+	private static final long HOUR = 60 * MINUTE;
+	private static final float TOLERANCE = 0.02f;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private File file;
+	private int now;
+
+	@Before
+	public void setUp() throws IOException {
+		file = folder.newFile("usage");
+		now = (int) (System.currentTimeMillis() / MINUTE);
+	}
+
+	@Test
+	public void hashKeysAreChained() {
+		long file = RadialUsageStore.hashKey(0, "file");
+		long edit = RadialUsageStore.hashKey(0, "edit");
+		assertEquals(file, RadialUsageStore.hashKey(0, "file"));
+		assertTrue(RadialUsageStore.hashKey(file, "open") != RadialUsageStore
+				.hashKey(edit, "open"));
+		assertTrue(RadialUsageStore.hashKey(file, "open") != RadialUsageStore
+				.hashKey(0, "fileopen"));
+		assertTrue(RadialUsageStore.hashKey(0, null) != 0);
+		assertTrue(RadialUsageStore.hashKey(0, "") != 0);
+	}
+
+	@Test
+	public void countsUses() throws IOException {
+		RadialUsageStore store = RadialUsageStore.open(file);
+		long key = RadialUsageStore.hashKey(0, "copy");
+		assertEquals(0, store.getScore(key), 0);
+		store.increment(key, now);
+		assertEquals(1, store.getScore(key), TOLERANCE);
+		store.increment(key, now);
+		store.increment(key, now);
+		assertEquals(3, store.getScore(key), TOLERANCE);
+		assertEquals(0, store.getScore(RadialUsageStore.hashKey(0, "paste")), 0);
+	}
+
+	@Test
+	public void scoresHalveEveryHalfLife() throws IOException {
+		RadialUsageStore store = RadialUsageStore.open(file,
+				RadialUsageStore.DEFAULT_CAPACITY, HOUR);
+		long key = RadialUsageStore.hashKey(0, "copy");
+		store.increment(key, now - 120);
+		assertEquals(0.25f, store.getScore(key), TOLERANCE);
+		// The old score decays before the new use is added
+		store.increment(key, now - 60);
+		assertEquals(0.75f, store.getScore(key), TOLERANCE);
+		store.increment(key, now);
+		assertEquals(1.75f, store.getScore(key), TOLERANCE);
+	}
+
+	@Test
+	public void usesInTheFutureDoNotDecay() throws IOException {
+		RadialUsageStore store = RadialUsageStore.open(file,
+				RadialUsageStore.DEFAULT_CAPACITY, HOUR);
+		long key = RadialUsageStore.hashKey(0, "copy");
+		store.increment(key, now + 600);
+		assertEquals(1, store.getScore(key), 0);
+	}
+
+	@Test
+	public void scoresSurviveReopening() throws IOException {
+		long key = RadialUsageStore.hashKey(0, "copy");
+		RadialUsageStore store = RadialUsageStore.open(file);
+		store.increment(key, now);
+		store.increment(key, now);
+		assertEquals(2, RadialUsageStore.open(file).getScore(key), TOLERANCE);
+	}
+
+	@Test
+	public void anotherCapacityClearsTheStore() throws IOException {
+		long key = RadialUsageStore.hashKey(0, "copy");
+		RadialUsageStore.open(file).increment(key, now);
+		RadialUsageStore store = RadialUsageStore.open(file, 64,
+				RadialUsageStore.DEFAULT_HALF_LIFE);
+		assertEquals(0, store.getScore(key), 0);
+	}
+
+	@Test
+	public void otherFilesAreCleared() throws IOException {
+		RadialUsageStore.open(file, 100, RadialUsageStore.DEFAULT_HALF_LIFE);
+		// Capacities are rounded up to a power of two
+		assertEquals(32 + 128 * 16, file.length());
+		RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		try {
+			raf.writeInt(0x12345678);
+		} finally {
+			raf.close();
+		}
+		RadialUsageStore store = RadialUsageStore.open(file, 100,
+				RadialUsageStore.DEFAULT_HALF_LIFE);
+		long key = RadialUsageStore.hashKey(0, "copy");
+		assertEquals(0, store.getScore(key), 0);
+		store.increment(key, now);
+		assertEquals(1, store.getScore(key), TOLERANCE);
+	}
+
+	@Test
+	public void collidingKeysAreProbed() throws IOException {
+		// The smallest store has 16 slots, all in the probe range of any key
+		RadialUsageStore store = RadialUsageStore.open(file, 1,
+				RadialUsageStore.DEFAULT_HALF_LIFE);
+		long[] keys = new long[16];
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = RadialUsageStore.hashKey(0, "item" + i);
+			for (int use = 0; use <= i; use++)
+				store.increment(keys[i], now);
+		}
+		for (int i = 0; i < keys.length; i++)
+			assertEquals("Item " + i, i + 1, store.getScore(keys[i]), TOLERANCE);
+	}
+
+	@Test
+	public void fullProbeRangeEvictsTheLeastUsedItem() throws IOException {
+		RadialUsageStore store = RadialUsageStore.open(file, 1, HOUR);
+		long[] keys = new long[16];
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = RadialUsageStore.hashKey(0, "item" + i);
+			// Item 5 is used most, but long ago, so it has decayed the most
+			int minute = i == 5 ? now - 600 : now;
+			for (int use = 0; use < (i == 5 ? 8 : 3); use++)
+				store.increment(keys[i], minute);
+		}
+		long newKey = RadialUsageStore.hashKey(0, "new");
+		store.increment(newKey, now);
+		assertEquals(1, store.getScore(newKey), TOLERANCE);
+		assertEquals(0, store.getScore(keys[5]), 0);
+		for (int i = 0; i < keys.length; i++) {
+			if (i != 5)
+				assertEquals("Item " + i, 3, store.getScore(keys[i]), TOLERANCE);
+		}
+	}
+
+	@Test
+	public void unusedItemsKeepTheirOrder() {
+		assertOrder(new float[] { 0, 0, 0, 0, 0 }, 2, true, 0, 1, 2, 3, 4);
+		assertOrder(new float[] { 0, 0, 0 }, 0, false, 0, 1, 2);
+	}
+
+	@Test
+	public void mostUsedItemsTakeTheEasiestPositions() {
+		assertOrder(new float[] { 0, 3, 0, 5, 0 }, 0, false, 2, 1, 3, 0, 4);
+		// Circular positions alternate on both sides of the first one
+		assertOrder(new float[] { 1, 0, 0, 0, 2 }, 2, true, 3, 0, 1, 4, 2);
+		assertOrder(new float[] { 1, 0, 0, 0 }, 3, false, 3, 0, 1, 2);
+		// The first item wins a tie
+		assertOrder(new float[] { 2, 2 }, 1, false, 1, 0);
+	}
+
+	private static void assertOrder(float[] scores, int first,
+			boolean circular, int... expected) {
+		int count = scores.length;
+		int[] positions = new int[count];
+		int[] easiest = new int[count];
+		RadialUsageStore.orderByUsage(scores, count, first, circular,
+				positions, easiest);
+		assertEquals(Arrays.toString(expected), Arrays.toString(positions));
+	}
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2012
+ * Jason Valestin (valestin@gmail.com ) and Arindam Nath (strider2023@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.touchmenotapps.widget.radialmenu.menu.v1;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import org.junit.Test;
+
+public class RadialMenuDefinitionTest {
+
+	private static final String MENU = "{ \"items\": ["
+			+ " { \"name\": \"file\", \"label\": \"File\", \"children\": ["
+			+ "   { \"name\": \"open\", \"label\": \"Open\" },"
+			+ "   { \"name\": \"recent\", \"label\": \"Recent\", \"children\": ["
+			+ "     { \"name\": \"a\", \"label\": \"A.txt\" },"
+			+ "     { \"name\": \"b\", \"label\": \"B.txt\", \"disabled\": true }"
+			+ "   ] }"
+			+ " ] },"
+			+ " { \"name\": \"size\", \"label\": \"Gr\\u00f6\\u00dfe \\\"XL\\\"\" },"
+			+ " { \"name\": \"quiet\", \"disabled\": true },"
+			+ " { \"name\": \"empty\", \"label\": \"Empty\", \"children\": [] }"
+			+ "] }";
+
+	@Test
+	public void roundTrip() {
+		RadialMenuTree tree = load(MENU);
+		List<RadialMenuItem> roots = tree.getRootItems();
+		assertEquals(4, roots.size());
+		assertItem(roots.get(0), "file", "File", true, true);
+		assertItem(roots.get(1), "size", "Gr\u00f6\u00dfe \"XL\"", true, false);
+		assertItem(roots.get(2), "quiet", null, false, false);
+		assertItem(roots.get(3), "empty", "Empty", true, false);
+		assertNull(roots.get(3).getChildren());
+		assertEquals(0, roots.get(0).getIcon());
+
+		List<RadialMenuItem> file = roots.get(0).getChildren();
+		assertEquals(2, file.size());
+		assertItem(file.get(0), "open", "Open", true, false);
+		assertItem(file.get(1), "recent", "Recent", true, true);
+
+		List<RadialMenuItem> recent = file.get(1).getChildren();
+		assertEquals(2, recent.size());
+		assertItem(recent.get(0), "a", "A.txt", true, false);
+		assertItem(recent.get(1), "b", "B.txt", false, false);
+	}
+
+	@Test
+	public void childrenAreDecodedWhenFirstRead() {
+		RadialMenuTree tree = load(MENU);
+		List<RadialMenuItem> roots = tree.getRootItems();
+		assertEquals(4, tree.getNodeCount());
+		roots.get(0).getChildren();
+		assertEquals(6, tree.getNodeCount());
+		roots.get(0).getChildren().get(1).getChildren();
+		assertEquals(8, tree.getNodeCount());
+		// Reading them again decodes nothing
+		roots.get(0).getChildren().get(1).getChildren();
+		assertEquals(8, tree.getNodeCount());
+	}
+
+	@Test
+	public void rootArrayAndHeapBuffer() {
+		byte[] compiled = RadialMenuCompiler.compile("[ { \"name\": \"only\","
+				+ " \"label\": \"only\" } ]");
+		RadialMenuTree tree = RadialMenuDefinition.load(null, "test",
+				ByteBuffer.wrap(compiled));
+		assertEquals(1, tree.getRootItems().size());
+		assertItem(tree.getRootItems().get(0), "only", "only", true, false);
+	}
+
+	@Test
+	public void equalStringsAreStoredOnce() {
+		byte[] shared = RadialMenuCompiler.compile("[ { \"name\": \"same\","
+				+ " \"label\": \"same\" } ]");
+		byte[] distinct = RadialMenuCompiler.compile("[ { \"name\": \"same\","
+				+ " \"label\": \"other\" } ]");
+		assertEquals(1, ByteBuffer.wrap(shared).getInt(16));
+		assertEquals(2, ByteBuffer.wrap(distinct).getInt(16));
+	}
+
+	@Test
+	public void rejectsBadDefinitions() {
+		assertCompileFails("{ }");
+		assertCompileFails("{ \"items\": 3 }");
+		assertCompileFails("[ 3 ]");
+		assertCompileFails("[ { \"children\": { } } ]");
+		assertCompileFails("[ { \"label\": 3 } ]");
+		assertCompileFails("[ { \"label\": \"open } ]");
+		assertCompileFails("[ ] [ ]");
+		assertCompileFails("[ { \"label\": \"\\u12\" } ]");
+	}
+
+	@Test
+	public void rejectsBadCompiledMenus() {
+		byte[] compiled = RadialMenuCompiler.compile(MENU);
+
+		byte[] magic = compiled.clone();
+		magic[0] = 0;
+		assertLoadFails(magic);
+
+		ByteBuffer version = ByteBuffer.wrap(compiled.clone());
+		version.putInt(4, RadialMenuDefinition.VERSION + 1);
+		assertLoadFails(version.array());
+
+		byte[] truncated = new byte[RadialMenuDefinition.HEADER_SIZE + 4];
+		System.arraycopy(compiled, 0, truncated, 0, truncated.length);
+		assertLoadFails(truncated);
+		assertLoadFails(new byte[4]);
+	}
+
+	@Test
+	public void rejectsBadNodesWhenTheyAreDecoded() {
+		ByteBuffer buffer = ByteBuffer.wrap(RadialMenuCompiler.compile(MENU));
+		int nodes = buffer.getInt(24);
+		// First child of the first root points past the last node
+		buffer.putInt(nodes + 16, 1000);
+		RadialMenuTree tree = RadialMenuDefinition.load(null, "test", buffer);
+		try {
+			tree.getRootItems().get(0).getChildren();
+			fail("Loaded a child past the last node");
+		} catch (IllegalArgumentException e) {
+			// Expected
+		}
+	}
+
+	private static RadialMenuTree load(String json) {
+		byte[] compiled = RadialMenuCompiler.compile(json);
+		ByteBuffer buffer = ByteBuffer.allocateDirect(compiled.length);
+		buffer.put(compiled);
+		buffer.flip();
+		return RadialMenuDefinition.load(null, "test", buffer);
+	}
+
+	private static void assertItem(RadialMenuItem item, String name,
+			String label, boolean enabled, boolean children) {
+		assertEquals(name, item.getName());
+		assertEquals(label, item.getLabel());
+		assertEquals(enabled, item.isEnabled());
+		assertEquals(children, item.hasChildren());
+	}
+
+	private static void assertCompileFails(String json) {
+		try {
+			RadialMenuCompiler.compile(json);
+			fail("Compiled " + json);
+		} catch (IllegalArgumentException e) {
+			// Expected
+		}
+	}
+
+	private static void assertLoadFails(byte[] compiled) {
+		try {
+			RadialMenuDefinition.load(null, "test", ByteBuffer.wrap(compiled));
+			fail("Loaded a bad compiled menu");
+		} catch (IllegalArgumentException e) {
+			// Expected
+		}
+	}
+}
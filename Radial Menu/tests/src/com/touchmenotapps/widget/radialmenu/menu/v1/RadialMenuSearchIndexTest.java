@@ -0,0 +1,258 @@
+/*
+ * Copyright (C) 2012
+ * Jason Valestin (valestin@gmail.com ) and Arindam Nath (strider2023@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.touchmenotapps.widget.radialmenu.menu.v1;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class RadialMenuSearchIndexTest {
+
+	private RadialMenuSearchIndex index;
+	private RadialMenuTree tree;
+	private int file;
+	private int edit;
+	private int copy;
+	private int copyPath;
+	private int paste;
+	private int find;
+
+	@Before
+	public void setUp() {
+		index = new RadialMenuSearchIndex();
+		tree = new RadialMenuTree(null, 8);
+		file = addNode(RadialMenuTree.NO_NODE, "file", "File");
+		edit = addNode(RadialMenuTree.NO_NODE, "edit", "Edit");
+		copy = addNode(edit, "copy", "Copy");
+		paste = addNode(edit, "paste", "Paste Special");
+		find = addNode(edit, "find", "Find and Replace");
+		copyPath = addNode(copy, "path", "Copy Path");
+	}
+
+	private int addNode(int parent, String name, String label) {
+		int node = tree.addNode(parent, label, 0, 0);
+		tree.setName(node, name);
+		return node;
+	}
+
+	private void addTree() {
+		List<RadialMenuItem> roots = tree.getRootItems();
+		for (int i = 0; i < roots.size(); i++)
+			index.add(roots.get(i), null);
+	}
+
+	private RadialMenuItem item(int node) {
+		return tree.getItem(node);
+	}
+
+	@Test
+	public void findsItemsOfEveryLevel() {
+		addTree();
+		assertResults(index.search("file", 10), item(file));
+		assertResults(index.search("pa", 10), item(paste), item(copyPath));
+		assertResults(index.search("rep", 10), item(find));
+	}
+
+	@Test
+	public void searchIgnoresCase() {
+		addTree();
+		assertResults(index.search("COPY", 10), item(copy), item(copyPath));
+		assertResults(index.search("  Spec ", 10), item(paste));
+	}
+
+	@Test
+	public void shallowerItemsRankFirst() {
+		RadialMenuItem tools = new RadialMenuItem("tools", "Tools");
+		RadialMenuItem deep = new RadialMenuItem("zip", "Zip");
+		RadialMenuItem shallow = new RadialMenuItem("archive", "Zip Archive");
+		index.add(tools, null);
+		index.add(deep, tools);
+		index.add(shallow, null);
+		// Depth ranks before the length of the text
+		assertResults(index.search("zip", 10), shallow, deep);
+	}
+
+	@Test
+	public void rankOrder() {
+		RadialMenuItem later = new RadialMenuItem("later", "Quick Save");
+		RadialMenuItem name = new RadialMenuItem("save", "Export");
+		RadialMenuItem longer = new RadialMenuItem("longer", "Save As");
+		RadialMenuItem shorter = new RadialMenuItem("shorter", "Save");
+		index.add(later, null);
+		index.add(name, null);
+		index.add(longer, null);
+		index.add(shorter, null);
+		// First words before later words before name words, shorter texts first
+		assertResults(index.search("save", 10), shorter, longer, later, name);
+		assertResults(index.search("save", 2), shorter, longer);
+	}
+
+	@Test
+	public void itemMatchingSeveralWordsIsListedOnce() {
+		RadialMenuItem item = new RadialMenuItem("save", "Save Save");
+		index.add(item, null);
+		assertResults(index.search("sa", 10), item);
+	}
+
+	@Test
+	public void everyQueryWordMustMatch() {
+		addTree();
+		assertResults(index.search("paste spe", 10), item(paste));
+		assertResults(index.search("spe paste", 10), item(paste));
+		assertResults(index.search("copy pa", 10), item(copyPath));
+		assertResults(index.search("paste copy", 10));
+	}
+
+	@Test
+	public void emptyQueriesFindNothing() {
+		addTree();
+		assertResults(index.search("", 10));
+		assertResults(index.search("  ", 10));
+		assertResults(index.search("x", 10));
+		assertResults(index.search("copy", 0));
+	}
+
+	@Test
+	public void findsItemsByPath() {
+		addTree();
+		assertSame(item(file), index.findItemByPath("file"));
+		assertSame(item(copy), index.findItemByPath("edit/copy"));
+		assertSame(item(copyPath), index.findItemByPath("edit/copy/path"));
+		assertNull(index.findItemByPath("copy"));
+		assertNull(index.findItemByPath("edit/copy/"));
+	}
+
+	@Test
+	public void firstItemKeepsAPathUsedTwice() {
+		RadialMenuItem first = new RadialMenuItem("same", "First");
+		RadialMenuItem second = new RadialMenuItem("same", "Second");
+		index.add(first, null);
+		index.add(second, null);
+		assertSame(first, index.findItemByPath("same"));
+		index.remove(first);
+		assertNull(index.findItemByPath("same"));
+		assertResults(index.search("second", 10), second);
+	}
+
+	@Test
+	public void addsChildrenOfIndexedParents() {
+		RadialMenuItem parent = new RadialMenuItem("parent", "Parent");
+		RadialMenuItem child = new RadialMenuItem("child", "Child");
+		RadialMenuItem orphan = new RadialMenuItem("orphan", "Orphan");
+		index.add(parent, null);
+		index.add(child, parent);
+		index.add(orphan, new RadialMenuItem("unknown", "Unknown"));
+		assertSame(child, index.findItemByPath("parent/child"));
+		assertResults(index.search("orphan", 10));
+	}
+
+	@Test
+	public void skipsChildrenThatAreNotLoaded() {
+		RadialMenuItem parent = new RadialMenuItem("parent", "Parent");
+		parent.setChildrenProvider(new RadialMenuChildrenProvider() {
+			@Override
+			public List<RadialMenuItem> loadChildren(RadialMenuItem item) {
+				throw new AssertionError("The index loaded child items");
+			}
+		}, 0);
+		index.add(parent, null);
+		assertResults(index.search("parent", 10), parent);
+	}
+
+	@Test
+	public void removeDropsTheItemAndItsChildren() {
+		addTree();
+		index.remove(item(copy));
+		assertResults(index.search("copy", 10));
+		assertNull(index.findItemByPath("edit/copy"));
+		assertNull(index.findItemByPath("edit/copy/path"));
+		assertResults(index.search("paste", 10), item(paste));
+		assertSame(item(paste), index.findItemByPath("edit/paste"));
+		// Removing twice, or an item that was never added, does nothing
+		index.remove(item(copy));
+		index.remove(new RadialMenuItem("other", "Other"));
+	}
+
+	@Test
+	public void removedItemsCanBeAddedAgain() {
+		addTree();
+		index.remove(item(edit));
+		assertResults(index.search("copy", 10));
+		index.add(item(edit), null);
+		assertResults(index.search("copy", 10), item(copy), item(copyPath));
+		assertSame(item(copyPath), index.findItemByPath("edit/copy/path"));
+	}
+
+	@Test
+	public void updateIndexesTheNewLabel() {
+		RadialMenuItem parent = new RadialMenuItem("parent", "Parent");
+		RadialMenuItem item = new RadialMenuItem("open", "Open");
+		index.add(parent, null);
+		index.add(item, parent);
+		item.setDisplayName("Open Recent");
+		index.update(item);
+		assertResults(index.search("recent", 10), item);
+		item.setDisplayName("Reopen");
+		index.update(item);
+		assertResults(index.search("recent", 10));
+		assertResults(index.search("reo", 10), item);
+		assertSame(item, index.findItemByPath("parent/open"));
+	}
+
+	@Test
+	public void updateKeepsTheChildItems() {
+		addTree();
+		index.update(item(edit));
+		assertResults(index.search("copy", 10), item(copy), item(copyPath));
+		assertSame(item(copyPath), index.findItemByPath("edit/copy/path"));
+	}
+
+	@Test
+	public void rebuildIsNeededAfterManyRemovals() {
+		List<RadialMenuItem> items = new ArrayList<RadialMenuItem>();
+		for (int i = 0; i < 100; i++) {
+			RadialMenuItem item = new RadialMenuItem("item" + i, "Item " + i);
+			items.add(item);
+			index.add(item, null);
+		}
+		for (int i = 0; i < 60; i++)
+			index.remove(items.get(i));
+		assertFalse(index.needsRebuild());
+		for (int i = 60; i < 80; i++)
+			index.remove(items.get(i));
+		assertTrue(index.needsRebuild());
+		index.clear();
+		assertFalse(index.needsRebuild());
+		assertResults(index.search("item", 10));
+		assertNull(index.findItemByPath("item90"));
+	}
+
+	private static void assertResults(List<RadialMenuItem> results,
+			RadialMenuItem... expected) {
+		assertEquals(Arrays.asList(expected), results);
+	}
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2012
+ * Jason Valestin (valestin@gmail.com ) and Arindam Nath (strider2023@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.touchmenotapps.widget.radialmenu.menu.v1;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class RadialMenuTreeTest {
+
+	private RadialMenuTree tree;
+	private int edit;
+	private List<Integer> changes;
+
+	@Before
+	public void setUp() {
+		tree = new RadialMenuTree(null, 4);
+		edit = tree.addNode(RadialMenuTree.NO_NODE, "Edit", 0, 0);
+		tree.addNode(edit, "Copy", 0, 0);
+		changes = new ArrayList<Integer>();
+	}
+
+	private RadialMenuItem observe(int node) {
+		RadialMenuItem item = tree.getItem(node);
+		item.addItemListener(new RadialMenuItem.OnItemChangedListener() {
+			@Override
+			public void onItemChanged(RadialMenuItem item, int what) {
+				changes.add(what);
+			}
+		});
+		return item;
+	}
+
+	@Test
+	public void settersWriteTheTree() {
+		RadialMenuItem item = observe(edit);
+		item.setDisplayName("Change");
+		item.setDisplayIcon(7);
+		item.setEnabled(false);
+		assertEquals("Change", tree.getLabel(edit));
+		assertEquals("Change", item.getLabel());
+		assertEquals(7, tree.getIcon(edit));
+		assertEquals(7, item.getIcon());
+		assertFalse(item.isEnabled());
+		assertEquals(RadialMenuTree.FLAG_DISABLED, tree.getFlags(edit));
+		item.setEnabled(true);
+		assertTrue(item.isEnabled());
+		assertEquals(0, tree.getFlags(edit));
+		item.setDisplayName(null);
+		assertNull(item.getLabel());
+
+		List<Integer> expected = new ArrayList<Integer>();
+		expected.add(RadialMenuItem.CHANGED_LABEL);
+		expected.add(RadialMenuItem.CHANGED_ICON);
+		expected.add(RadialMenuItem.CHANGED_ENABLED);
+		expected.add(RadialMenuItem.CHANGED_ENABLED);
+		expected.add(RadialMenuItem.CHANGED_LABEL);
+		assertEquals(expected, changes);
+	}
+
+	@Test
+	public void childrenAreOnlyAddedToTheTree() {
+		RadialMenuItem item = tree.getItem(edit);
+		try {
+			item.setMenuChildren(new ArrayList<RadialMenuItem>());
+			fail("Set the children of a tree node");
+		} catch (UnsupportedOperationException e) {
+			// Expected
+		}
+		try {
+			item.setChildrenProvider(null, 0);
+			fail("Set the children provider of a tree node");
+		} catch (UnsupportedOperationException e) {
+			// Expected
+		}
+	}
+
+	@Test
+	public void childListFollowsAddedNodes() {
+		RadialMenuItem item = observe(edit);
+		assertEquals(1, item.getChildren().size());
+		tree.addNode(edit, "Paste", 0, 0);
+		assertEquals(2, item.getChildren().size());
+		assertEquals("Paste", item.getChildren().get(1).getLabel());
+		assertEquals(1, changes.size());
+		assertEquals(RadialMenuItem.CHANGED_CHILDREN, (int) changes.get(0));
+	}
+}
@@ -0,0 +1,385 @@
+/*
+ * Copyright (C) 2012
+ * Jason Valestin (valestin@gmail.com ) and Arindam Nath (strider2023@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.touchmenotapps.widget.radialmenu.menu.v1;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class compiles a JSON menu definition into the binary format loaded by
+ * RadialMenuDefinition. It runs at build time on a plain JVM and does not use
+ * any Android class. It lives in the tools source folder so it is not
+ * packaged with the library, tools/build.xml runs it over every menu.
+ * 
+ * The definition is an array of items, or an object with an "items" array.
+ * Every item can have a "name", a "label" (text, or "@string/name" for a
+ * string resource), an "icon" (drawable resource name), "disabled" and a
+ * "children" array of items.
+ * <strong> Usage </strong>
+ * 
+ * ant -f tools/build.xml -Dsdk.dir=/path/to/sdk -Dmenus.dir=menus -Draw.dir=res/raw
+ */
+public class RadialMenuCompiler {
+
+	private static final String STRING_RESOURCE = "@string/";
+
+	private final List<Map<String, Object>> nodes = new ArrayList<Map<String, Object>>();
+	private final List<int[]> childRanges = new ArrayList<int[]>();
+	private final Map<String, Integer> stringIds = new HashMap<String, Integer>();
+	private final List<byte[]> strings = new ArrayList<byte[]>();
+
+	private RadialMenuCompiler() {
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length != 2) {
+			System.err.println("Usage: RadialMenuCompiler <menu.json> <menu.bin>");
+			System.exit(1);
+		}
+		InputStream in = new FileInputStream(new File(args[0]));
+		byte[] compiled;
+		try {
+			compiled = compile(readFully(in));
+		} finally {
+			in.close();
+		}
+		OutputStream out = new FileOutputStream(new File(args[1]));
+		try {
+			out.write(compiled);
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Compiles a JSON menu definition.
+	 * @param json - Menu definition.
+	 * @return The compiled menu.
+	 * @throws IllegalArgumentException If the definition is not valid.
+	 */
+	@SuppressWarnings("unchecked")
+	public static byte[] compile(String json) {
+		Object root = new JsonParser(json).parse();
+		if (root instanceof Map)
+			root = ((Map<String, Object>) root).get("items");
+		if (!(root instanceof List))
+			throw new IllegalArgumentException("The menu definition has no items");
+		RadialMenuCompiler compiler = new RadialMenuCompiler();
+		compiler.flatten((List<Object>) root);
+		try {
+			return compiler.write(((List<Object>) root).size());
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Lists the items breadth first, so the children of every item are
+	 * contiguous.
+	 */
+	@SuppressWarnings("unchecked")
+	private void flatten(List<Object> roots) {
+		addItems(roots);
+		for (int i = 0; i < nodes.size(); i++) {
+			Object children = nodes.get(i).get("children");
+			if (children == null) {
+				childRanges.add(new int[] { 0, 0 });
+			} else if (children instanceof List) {
+				int first = nodes.size();
+				addItems((List<Object>) children);
+				childRanges.add(new int[] { first, nodes.size() - first });
+			} else {
+				throw new IllegalArgumentException("\"children\" of item " + i
+						+ " is not an array");
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void addItems(List<Object> items) {
+		for (Object item : items) {
+			if (!(item instanceof Map))
+				throw new IllegalArgumentException("Menu item is not an object: "
+						+ item);
+			nodes.add((Map<String, Object>) item);
+		}
+	}
+
+	private byte[] write(int rootCount) throws IOException {
+		ByteArrayOutputStream nodeBytes = new ByteArrayOutputStream();
+		DataOutputStream nodeOut = new DataOutputStream(nodeBytes);
+		for (int i = 0; i < nodes.size(); i++) {
+			Map<String, Object> node = nodes.get(i);
+			String label = getString(node, "label");
+			int flags = 0;
+			if (Boolean.TRUE.equals(node.get("disabled")))
+				flags |= RadialMenuDefinition.NODE_FLAG_DISABLED;
+			if (label != null && label.startsWith(STRING_RESOURCE)) {
+				flags |= RadialMenuDefinition.NODE_FLAG_LABEL_RESOURCE;
+				label = label.substring(STRING_RESOURCE.length());
+			}
+			nodeOut.writeInt(addString(getString(node, "name")));
+			nodeOut.writeInt(addString(label));
+			nodeOut.writeInt(addString(getString(node, "icon")));
+			nodeOut.writeInt(flags);
+			nodeOut.writeInt(childRanges.get(i)[0]);
+			nodeOut.writeInt(childRanges.get(i)[1]);
+		}
+
+		int stringOffsets = RadialMenuDefinition.HEADER_SIZE;
+		int nodesOffset = stringOffsets + strings.size() * 4;
+		int stringData = nodesOffset + nodeBytes.size();
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(RadialMenuDefinition.MAGIC);
+		out.writeInt(RadialMenuDefinition.VERSION);
+		out.writeInt(nodes.size());
+		out.writeInt(rootCount);
+		out.writeInt(strings.size());
+		out.writeInt(stringOffsets);
+		out.writeInt(nodesOffset);
+		int offset = stringData;
+		for (byte[] string : strings) {
+			out.writeInt(offset);
+			offset += 2 + string.length;
+		}
+		nodeBytes.writeTo(out);
+		for (byte[] string : strings) {
+			out.writeShort(string.length);
+			out.write(string);
+		}
+		out.flush();
+		return bytes.toByteArray();
+	}
+
+	private static String getString(Map<String, Object> node, String key) {
+		Object value = node.get(key);
+		if (value != null && !(value instanceof String))
+			throw new IllegalArgumentException("\"" + key + "\" is not a string: "
+					+ value);
+		return (String) value;
+	}
+
+	/**
+	 * @return The index of the string in the string table, shared by equal
+	 *         strings.
+	 */
+	private int addString(String string) throws IOException {
+		if (string == null)
+			return RadialMenuDefinition.NO_STRING;
+		Integer id = stringIds.get(string);
+		if (id == null) {
+			byte[] utf8 = string.getBytes("UTF-8");
+			if (utf8.length > 0xFFFF)
+				throw new IllegalArgumentException("String too long: " + string);
+			id = strings.size();
+			strings.add(utf8);
+			stringIds.put(string, id);
+		}
+		return id;
+	}
+
+	private static String readFully(InputStream in) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		byte[] chunk = new byte[8192];
+		int read;
+		while ((read = in.read(chunk)) != -1)
+			bytes.write(chunk, 0, read);
+		return bytes.toString("UTF-8");
+	}
+
+	/**
+	 * This class is a minimal JSON parser, so the compiler needs no library.
+	 * Objects become maps, arrays lists, numbers doubles.
+	 */
+	private static class JsonParser {
+		private final String json;
+		private int pos = 0;
+
+		private JsonParser(String json) {
+			this.json = json;
+		}
+
+		private Object parse() {
+			Object value = parseValue();
+			skipWhitespace();
+			if (pos != json.length())
+				throw error("Unexpected text after the menu definition");
+			return value;
+		}
+
+		private Object parseValue() {
+			skipWhitespace();
+			if (pos >= json.length())
+				throw error("Unexpected end of the menu definition");
+			char c = json.charAt(pos);
+			if (c == '{')
+				return parseObject();
+			if (c == '[')
+				return parseArray();
+			if (c == '"')
+				return parseString();
+			if (json.startsWith("true", pos)) {
+				pos += 4;
+				return Boolean.TRUE;
+			}
+			if (json.startsWith("false", pos)) {
+				pos += 5;
+				return Boolean.FALSE;
+			}
+			if (json.startsWith("null", pos)) {
+				pos += 4;
+				return null;
+			}
+			return parseNumber();
+		}
+
+		private Map<String, Object> parseObject() {
+			Map<String, Object> object = new LinkedHashMap<String, Object>();
+			pos++;
+			skipWhitespace();
+			if (peek() == '}') {
+				pos++;
+				return object;
+			}
+			while (true) {
+				skipWhitespace();
+				if (peek() != '"')
+					throw error("Expected a key");
+				String key = parseString();
+				skipWhitespace();
+				expect(':');
+				object.put(key, parseValue());
+				skipWhitespace();
+				if (peek() == ',') {
+					pos++;
+				} else {
+					expect('}');
+					return object;
+				}
+			}
+		}
+
+		private List<Object> parseArray() {
+			List<Object> array = new ArrayList<Object>();
+			pos++;
+			skipWhitespace();
+			if (peek() == ']') {
+				pos++;
+				return array;
+			}
+			while (true) {
+				array.add(parseValue());
+				skipWhitespace();
+				if (peek() == ',') {
+					pos++;
+				} else {
+					expect(']');
+					return array;
+				}
+			}
+		}
+
+		private String parseString() {
+			StringBuilder string = new StringBuilder();
+			pos++;
+			while (true) {
+				if (pos >= json.length())
+					throw error("Unterminated string");
+				char c = json.charAt(pos++);
+				if (c == '"')
+					return string.toString();
+				if (c != '\\') {
+					string.append(c);
+					continue;
+				}
+				if (pos >= json.length())
+					throw error("Unterminated string");
+				char escaped = json.charAt(pos++);
+				switch (escaped) {
+				case 'n':
+					string.append('\n');
+					break;
+				case 't':
+					string.append('\t');
+					break;
+				case 'r':
+					string.append('\r');
+					break;
+				case 'b':
+					string.append('\b');
+					break;
+				case 'f':
+					string.append('\f');
+					break;
+				case 'u':
+					if (pos + 4 > json.length())
+						throw error("Bad unicode escape");
+					string.append((char) Integer.parseInt(json.substring(pos,
+							pos + 4), 16));
+					pos += 4;
+					break;
+				default:
+					string.append(escaped);
+				}
+			}
+		}
+
+		private Double parseNumber() {
+			int start = pos;
+			while (pos < json.length()
+					&& "+-0123456789.eE".indexOf(json.charAt(pos)) != -1)
+				pos++;
+			if (start == pos)
+				throw error("Unexpected character '" + json.charAt(pos) + "'");
+			return Double.valueOf(json.substring(start, pos));
+		}
+
+		private void skipWhitespace() {
+			while (pos < json.length()
+					&& Character.isWhitespace(json.charAt(pos)))
+				pos++;
+		}
+
+		private char peek() {
+			return pos < json.length() ? json.charAt(pos) : 0;
+		}
+
+		private void expect(char c) {
+			if (peek() != c)
+				throw error("Expected '" + c + "'");
+			pos++;
+		}
+
+		private IllegalArgumentException error(String message) {
+			return new IllegalArgumentException(message + " at offset " + pos);
+		}
+	}
+}